@@ -0,0 +1,120 @@
+package benchmarks;
+
+import backend.entities.OilRig;
+import backend.entities.Ship;
+import backend.entities.Worker;
+import backend.fleet.Fleet;
+import frontend.UI;
+import org.openjdk.jmh.annotations.*;
+
+import java.awt.*;
+import java.util.ArrayList;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of the fleet model's membership checks and the label layout of the map
+ * @author Louis Wendler
+ * @since 1.0
+ * @version 1.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FleetBenchmark {
+
+    private static final int LOOKUPS = 1024;
+
+    @Param({"4", "64", "1024"})
+    public int oilRigs;
+
+    @Param({"9"})
+    public int shipsPerOilRig;
+
+    private Fleet fleet;
+    private OilRig[] lookupOilRigs;
+    private Ship[] lookupShips;
+    private Ship[] lookupOtherShips;
+    private Worker[] lookupWorkers;
+    private int next;
+
+    @Setup
+    public void setup() {
+        Fleet.Builder builder = new Fleet.Builder();
+        ArrayList<OilRig> allOilRigs = new ArrayList<>();
+        ArrayList<Ship> allShips = new ArrayList<>();
+        ArrayList<Worker> allWorkers = new ArrayList<>();
+
+        for (int i = 0; i < oilRigs; i++) {
+            OilRig oilRig = new OilRig("Oil Rig " + i, 100, 4, 5);
+            builder.addOilRig(oilRig);
+            allOilRigs.add(oilRig);
+
+            for (int j = 0; j < shipsPerOilRig; j++) {
+                Ship ship = new Ship("ship" + j + "o" + i, j < 4 ? 50 : 100);
+                builder.anchorShip(ship, oilRig);
+                allShips.add(ship);
+
+                Worker worker = new Worker("worker" + j + "o" + i, "mechanic");
+                builder.deployWorker(worker, ship);
+                allWorkers.add(worker);
+            }
+        }
+        fleet = builder.build();
+
+        // Look up equal copies, as the UI does with freshly loaded nodes
+        Random random = new Random(42);
+        lookupOilRigs = new OilRig[LOOKUPS];
+        lookupShips = new Ship[LOOKUPS];
+        lookupOtherShips = new Ship[LOOKUPS];
+        lookupWorkers = new Worker[LOOKUPS];
+        for (int i = 0; i < LOOKUPS; i++) {
+            OilRig oilRig = allOilRigs.get(random.nextInt(allOilRigs.size()));
+            lookupOilRigs[i] = new OilRig(oilRig.getName(), 100, 4, 5);
+
+            Ship ship = allShips.get(random.nextInt(allShips.size()));
+            lookupShips[i] = new Ship(ship.getName(), ship.getMaxWorkers());
+
+            Ship other = allShips.get(random.nextInt(allShips.size()));
+            lookupOtherShips[i] = new Ship(other.getName(), other.getMaxWorkers());
+
+            Worker worker = allWorkers.get(random.nextInt(allWorkers.size()));
+            lookupWorkers[i] = new Worker(worker.getName(), "mechanic");
+        }
+    }
+
+    private int nextIndex() {
+        next = (next + 1) & (LOOKUPS - 1);
+        return next;
+    }
+
+    @Benchmark
+    public boolean contains() {
+        return fleet.contains(lookupShips[nextIndex()]);
+    }
+
+    @Benchmark
+    public boolean anchorsAt() {
+        int i = nextIndex();
+        return fleet.anchorsAt(lookupShips[i], lookupOilRigs[i]);
+    }
+
+    @Benchmark
+    public boolean anchorAtSameOilRig() {
+        int i = nextIndex();
+        return fleet.anchorAtSameOilRig(lookupShips[i], lookupOtherShips[i]);
+    }
+
+    @Benchmark
+    public Object getHolder() {
+        return fleet.getHolder(lookupWorkers[nextIndex()]);
+    }
+
+    @Benchmark
+    public ArrayList<Point> computeLabelPoints() {
+        return UI.computeLabelPoints(new Point(960, 540), 400, oilRigs);
+    }
+}
@@ -0,0 +1,71 @@
+package benchmarks;
+
+import backend.entities.CypherQuery;
+import backend.entities.OilRig;
+import backend.entities.Worker;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of the cypher query generation of the entities
+ * @author Louis Wendler
+ * @since 1.0
+ * @version 1.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class QueryGenerationBenchmark {
+
+    @Param({"4", "64", "256"})
+    public int oilRigs;
+
+    @Param({"100", "760"})
+    public int workersPerOilRig;
+
+    private ArrayList<OilRig> fleet;
+    private Worker worker;
+
+    @Setup
+    public void setup() {
+        fleet = new ArrayList<>();
+        for (int i = 0; i < oilRigs; i++) {
+            OilRig oilRig = new OilRig("Oil Rig " + i, workersPerOilRig, 4, 5);
+            oilRig.setNodeVariable("o" + i);
+            fleet.add(oilRig);
+        }
+        worker = new Worker("worker0o0", "mechanic");
+    }
+
+    @Benchmark
+    public CypherQuery nodeCypher() {
+        return worker.cypher("CREATE", "w");
+    }
+
+    @Benchmark
+    public void cypherCreateShips(Blackhole blackhole) {
+        for (OilRig oilRig : fleet) {
+            blackhole.consume(oilRig.cypherCreateShips());
+        }
+    }
+
+    @Benchmark
+    public void cypherCreateWorkers(Blackhole blackhole) {
+        for (OilRig oilRig : fleet) {
+            blackhole.consume(oilRig.cypherCreateWorkers());
+        }
+    }
+
+    @Benchmark
+    public CypherQuery cypherRelationshipToOilRigs() {
+        // The method adds the oil rig to the list it gets, so it needs a fresh copy
+        ArrayList<OilRig> others = new ArrayList<>(fleet.subList(1, fleet.size()));
+        return fleet.get(0).cypherRelationshipToOilRigs(others);
+    }
+}
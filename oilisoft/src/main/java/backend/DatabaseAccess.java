@@ -0,0 +1,195 @@
+package backend;
+
+import backend.entities.CypherQuery;
+import backend.memory.InMemoryDatabase;
+import backend.metrics.DatabaseMetrics;
+import backend.replay.QueryRecorder;
+import backend.replay.QueryReplayer;
+import org.neo4j.driver.Record;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletionStage;
+import java.util.function.Function;
+
+/**
+ * Access to the graph database of the fleet
+ * DatabaseManagement talks to Neo4j via Bolt, InMemoryDatabase runs the entities' queries on an in-memory graph
+ * and QueryRecorder/QueryReplayer record and replay the queries of a session.
+ * @author Louis Wendler
+ * @since 1.0
+ * @version 1.0
+ */
+public interface DatabaseAccess extends AutoCloseable {
+
+    /**
+     * Open the database access that fits an URI
+     * "memory:" opens an empty in-memory graph, "memory:example" one with the example fleet,
+     * "replay:file" replays a recording, any other URI connects to Neo4j.
+     * If the system property oilisoft.db.record names a file, all queries are recorded into it.
+     * @param uri Address of the database
+     * @param user Username of a specific user
+     * @param password Password to authenticate user
+     * @return The DatabaseAccess
+     * @throws Exception If the database or recording can't be opened
+     */
+    static DatabaseAccess open(String uri, String user, String password) throws Exception {
+        DatabaseAccess database;
+        if (uri.startsWith(InMemoryDatabase.URI_SCHEME))
+            database = InMemoryDatabase.open(uri);
+        else if (uri.startsWith(QueryReplayer.URI_SCHEME))
+            database = new QueryReplayer(uri.substring(QueryReplayer.URI_SCHEME.length()));
+        else
+            database = new DatabaseManagement(uri, user, password);
+
+        String recording = System.getProperty("oilisoft.db.record");
+        if (recording != null && !recording.isEmpty()) {
+            try {
+                database = new QueryRecorder(database, recording);
+            } catch (Exception e) {
+                // Nobody else can close the opened database
+                try {
+                    database.close();
+                } catch (RuntimeException closeFailure) {
+                    e.addSuppressed(closeFailure);
+                }
+                throw e;
+            }
+        }
+
+        return database;
+    }
+
+    /**
+     * Close the database access and release its resources
+     * @throws DatabaseAccessException If the database or recording could not be closed properly
+     */
+    @Override
+    void close();
+
+    /**
+     * Check that the database is reachable
+     * @throws DatabaseAccessException If no connection could be established
+     */
+    void verifyConnectivity();
+
+    /**
+     * Write a database transaction and receive records
+     * @param cypherQuery Cypher query as a String
+     * @return Result of query as List of Records
+     * @throws DatabaseAccessException If the query failed and will not be retried
+     */
+    default ArrayList<Record> writeTx(String cypherQuery) {
+        return writeTx(new CypherQuery(cypherQuery));
+    }
+
+    /**
+     * Write a parameterized database transaction and receive records
+     * @param cypherQuery CypherQuery with its bound parameters
+     * @return Result of query as List of Records
+     * @throws DatabaseAccessException If the query failed and will not be retried
+     */
+    ArrayList<Record> writeTx(CypherQuery cypherQuery);
+
+    /**
+     * Write several queries in one database transaction, they are committed together or not at all
+     * @param cypherQueries CypherQueries with their bound parameters, run in this order
+     * @return Result of every query as List of Records
+     * @throws DatabaseAccessException If the transaction failed and will not be retried, nothing has been written then
+     */
+    ArrayList<ArrayList<Record>> writeTx(List<CypherQuery> cypherQueries);
+
+    /**
+     * Read from the database in a read transaction and receive records
+     * @param cypherQuery CypherQuery with its bound parameters
+     * @return Result of query as List of Records
+     * @throws DatabaseAccessException If the query failed and will not be retried
+     */
+    ArrayList<Record> readTx(CypherQuery cypherQuery);
+
+    /**
+     * Write a parameterized database transaction and stream its records to a visitor
+     * If the transaction is retried after a transient failure, its records are visited again,
+     * visitors that keep state have to use streamWriteTx(cypherQuery, visitor, onAttempt)
+     * @param cypherQuery CypherQuery with its bound parameters
+     * @param visitor Handles each record as it arrives, may stop the stream by returning false
+     * @return Number of records that have been visited
+     * @throws DatabaseAccessException If the query failed and will not be retried
+     */
+    default long streamWriteTx(CypherQuery cypherQuery, RecordVisitor visitor) {
+        return streamWriteTx(cypherQuery, visitor, null);
+    }
+
+    /**
+     * Write a parameterized database transaction and stream its records to a visitor
+     * @param cypherQuery CypherQuery with its bound parameters
+     * @param visitor Handles each record as it arrives, may stop the stream by returning false
+     * @param onAttempt Runs before every attempt of the transaction, resets what the visitor collected (may be null)
+     * @return Number of records that have been visited in the successful attempt
+     * @throws DatabaseAccessException If the query failed and will not be retried
+     */
+    long streamWriteTx(CypherQuery cypherQuery, RecordVisitor visitor, Runnable onAttempt);
+
+    /**
+     * Read from the database in a read transaction and stream the records to a visitor
+     * If the transaction is retried after a transient failure, its records are visited again,
+     * visitors that keep state have to use streamReadTx(cypherQuery, visitor, onAttempt)
+     * @param cypherQuery CypherQuery with its bound parameters
+     * @param visitor Handles each record as it arrives, may stop the stream by returning false
+     * @return Number of records that have been visited
+     * @throws DatabaseAccessException If the query failed and will not be retried
+     */
+    default long streamReadTx(CypherQuery cypherQuery, RecordVisitor visitor) {
+        return streamReadTx(cypherQuery, visitor, null);
+    }
+
+    /**
+     * Read from the database in a read transaction and stream the records to a visitor
+     * @param cypherQuery CypherQuery with its bound parameters
+     * @param visitor Handles each record as it arrives, may stop the stream by returning false
+     * @param onAttempt Runs before every attempt of the transaction, resets what the visitor collected (may be null)
+     * @return Number of records that have been visited in the successful attempt
+     * @throws DatabaseAccessException If the query failed and will not be retried
+     */
+    long streamReadTx(CypherQuery cypherQuery, RecordVisitor visitor, Runnable onAttempt);
+
+    /**
+     * Read from the database without blocking the calling thread
+     * @param cypherQuery CypherQuery with its bound parameters
+     * @return Stage that completes with the records, or with a DatabaseAccessException
+     */
+    default CompletionStage<ArrayList<Record>> readTxAsync(CypherQuery cypherQuery) {
+        return readTxAsync(cypherQuery, ArrayList::new);
+    }
+
+    /**
+     * Read from the database without blocking the calling thread and map the records
+     * @param cypherQuery CypherQuery with its bound parameters
+     * @param mapper Turns the records into the result
+     * @return Stage that completes with the mapped result, or with a DatabaseAccessException
+     */
+    <T> CompletionStage<T> readTxAsync(CypherQuery cypherQuery, Function<List<Record>, T> mapper);
+
+    /**
+     * Write a database transaction without blocking the calling thread
+     * @param cypherQuery CypherQuery with its bound parameters
+     * @return Stage that completes with the records, or with a DatabaseAccessException
+     */
+    default CompletionStage<ArrayList<Record>> writeTxAsync(CypherQuery cypherQuery) {
+        return writeTxAsync(cypherQuery, ArrayList::new);
+    }
+
+    /**
+     * Write a database transaction without blocking the calling thread and map the records
+     * @param cypherQuery CypherQuery with its bound parameters
+     * @param mapper Turns the records into the result
+     * @return Stage that completes with the mapped result, or with a DatabaseAccessException
+     */
+    <T> CompletionStage<T> writeTxAsync(CypherQuery cypherQuery, Function<List<Record>, T> mapper);
+
+    /**
+     * Get the statistics of the queries that have been run
+     * @return The DatabaseMetrics
+     */
+    DatabaseMetrics getMetrics();
+}
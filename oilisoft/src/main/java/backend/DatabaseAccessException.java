@@ -0,0 +1,51 @@
+package backend;
+
+/**
+ * Thrown when a database transaction failed and will not be retried anymore
+ * @author Louis Wendler
+ * @since 1.0
+ * @version 1.0
+ */
+public class DatabaseAccessException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final boolean isTransient;
+    private final int attempts;
+
+    /**
+     * Create a DatabaseAccessException
+     * @param query Text of the query that failed
+     * @param cause The failure of the last attempt
+     * @param isTransient True if the failure might disappear when the transaction is run again later
+     * @param attempts Number of attempts that have been made
+     */
+    public DatabaseAccessException(String query, Throwable cause, boolean isTransient, int attempts) {
+        super(String.format("Query failed after %d attempt(s): %s", attempts, query), cause);
+        this.isTransient = isTransient;
+        this.attempts = attempts;
+    }
+
+    /**
+     * Create a DatabaseAccessException for a failure outside of a transaction
+     * @param message Description of what failed
+     * @param cause The failure
+     */
+    public DatabaseAccessException(String message, Throwable cause) {
+        super(message, cause);
+        this.isTransient = false;
+        this.attempts = 0;
+    }
+
+    /**
+     * Determine if the failure might disappear by itself (e.g. the cluster elected a new leader)
+     * @return True if running the transaction again later might succeed
+     */
+    public boolean isTransient() {
+        return isTransient;
+    }
+
+    public int getAttempts() {
+        return attempts;
+    }
+}
@@ -1,22 +1,64 @@
 package backend;
 
+import backend.entities.CypherQuery;
+import backend.metrics.DatabaseMetrics;
+import backend.metrics.QueryStats;
 import org.neo4j.driver.*;
+import org.neo4j.driver.Record;
+import org.neo4j.driver.async.AsyncSession;
+import org.neo4j.driver.async.AsyncTransactionWork;
+import org.neo4j.driver.async.ResultCursor;
 
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.function.Supplier;
 
 /**
- * Database management
+ * Database management of a Neo4j database via Bolt
  * @author Louis Wendler
  * @since 1.0
  * @version 1.0
  */
-public class DatabaseManagement implements AutoCloseable {
+public class DatabaseManagement implements DatabaseAccess {
+
+    /**
+     * Default pool settings, each can be overridden by the system property named in its comment
+     */
+    public static final int DEFAULT_MAX_CONNECTION_POOL_SIZE = 16;          // oilisoft.db.maxConnectionPoolSize
+    public static final long DEFAULT_CONNECTION_ACQUISITION_TIMEOUT = 30;   // oilisoft.db.connectionAcquisitionTimeout (s)
+    public static final long DEFAULT_CONNECTION_LIVENESS_CHECK_TIMEOUT = 60; // oilisoft.db.connectionLivenessCheckTimeout (s)
+    public static final long DEFAULT_MAX_CONNECTION_LIFETIME = 30 * 60;     // oilisoft.db.maxConnectionLifetime (s)
+    public static final long DEFAULT_FETCH_SIZE = 1000;                     // oilisoft.db.fetchSize
+    public static final int DEFAULT_MAPPING_THREADS = 4;                    // oilisoft.db.mappingThreads
+    public static final int DEFAULT_MAPPING_QUEUE_SIZE = 64;                // oilisoft.db.mappingQueueSize
+    public static final long DEFAULT_METRICS_LOG_PERIOD = 60;               // oilisoft.db.metricsLogPeriod (s, 0 = off)
 
     private final String uri;
     private final String user;
     private final String password;
+    private final Config config;
+    private final RetryPolicy retryPolicy;
+    private final DatabaseMetrics metrics;
 
-    private Driver driver;
+    private volatile Driver driver;
+    private volatile ThreadPoolExecutor mappingExecutor;
+    private volatile ScheduledExecutorService retryScheduler;
+    private volatile Bookmark lastBookmark;
+    private final Map<CompletableFuture<?>, String> pendingAsync;
 
     /**
      * Creates an DatabaseManagement object,
@@ -26,46 +68,561 @@ public class DatabaseManagement implements AutoCloseable {
      * @param password Password to authenticate user
      */
     public DatabaseManagement(String uri, String user, String password) {
+        this(uri, user, password, defaultConfig());
+    }
+
+    /**
+     * Creates an DatabaseManagement object with a custom driver configuration
+     * @param uri Address of the database
+     * @param user Username of a specific user
+     * @param password Password to authenticate user
+     * @param config Driver configuration (connection pool sizing, health checks, ...)
+     */
+    public DatabaseManagement(String uri, String user, String password, Config config) {
+        this(uri, user, password, config, RetryPolicy.defaultPolicy());
+    }
+
+    /**
+     * Creates an DatabaseManagement object with a custom driver configuration and retry policy
+     * @param uri Address of the database
+     * @param user Username of a specific user
+     * @param password Password to authenticate user
+     * @param config Driver configuration, should disable the driver's own retries (see defaultConfig())
+     * @param retryPolicy Decides which failed transactions are run again
+     */
+    public DatabaseManagement(String uri, String user, String password, Config config, RetryPolicy retryPolicy) {
         this.uri = uri;
         this.user = user;
         this.password = password;
+        this.config = config;
+        this.retryPolicy = retryPolicy;
+        this.metrics = new DatabaseMetrics(uri, this::connectionPoolMetrics);
+        this.pendingAsync = new ConcurrentHashMap<>();
 
         start();
     }
 
     /**
-     * Initialize a new unclosed database driver
+     * Create the default driver configuration.
+     * Connections that idled longer than the liveness check timeout are tested before reuse
+     * and connections older than the max lifetime are evicted from the pool.
+     * The driver does not retry transactions itself, that is left to the RetryPolicy.
+     * Driver metrics are enabled to publish the pool usage in the DatabaseMetrics.
+     * @return Config for the long-lived driver
+     */
+    public static Config defaultConfig() {
+        return Config.builder()
+                .withMaxConnectionPoolSize(
+                        Integer.getInteger("oilisoft.db.maxConnectionPoolSize", DEFAULT_MAX_CONNECTION_POOL_SIZE))
+                .withConnectionAcquisitionTimeout(
+                        Long.getLong("oilisoft.db.connectionAcquisitionTimeout", DEFAULT_CONNECTION_ACQUISITION_TIMEOUT),
+                        TimeUnit.SECONDS)
+                .withConnectionLivenessCheckTimeout(
+                        Long.getLong("oilisoft.db.connectionLivenessCheckTimeout", DEFAULT_CONNECTION_LIVENESS_CHECK_TIMEOUT),
+                        TimeUnit.SECONDS)
+                .withMaxConnectionLifetime(
+                        Long.getLong("oilisoft.db.maxConnectionLifetime", DEFAULT_MAX_CONNECTION_LIFETIME),
+                        TimeUnit.SECONDS)
+                .withFetchSize(Long.getLong("oilisoft.db.fetchSize", DEFAULT_FETCH_SIZE))
+                .withMaxTransactionRetryTime(0, TimeUnit.MILLISECONDS)
+                .withDriverMetrics()
+                .build();
+    }
+
+    /**
+     * Initialize the database driver and its connection pool, if not already running.
+     * The driver is meant to live for the whole application lifetime.
+     */
+    public synchronized void start() {
+        if (driver != null)
+            return;
+
+        driver = GraphDatabase.driver(uri, AuthTokens.basic(user, password), config);
+        mappingExecutor = createMappingExecutor();
+        retryScheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "oilisoft-retry");
+            thread.setDaemon(true);
+            return thread;
+        });
+        metrics.start(Long.getLong("oilisoft.db.metricsLogPeriod", DEFAULT_METRICS_LOG_PERIOD));
+    }
+
+    /**
+     * Create the bounded pool that maps the results of asynchronous queries.
+     * The driver's I/O threads only receive the records, the mapping into entities runs here.
+     * If all threads are busy and the queue is full, the mapping runs on the thread
+     * that completed the query, which slows the driver down instead of queueing without limit.
+     * Once the executor has been shut down, new mappings are rejected, so their stages can be failed.
+     * @return Executor with daemon threads
+     */
+    private static ThreadPoolExecutor createMappingExecutor() {
+        int threads = Integer.getInteger("oilisoft.db.mappingThreads", DEFAULT_MAPPING_THREADS);
+        int queueSize = Integer.getInteger("oilisoft.db.mappingQueueSize", DEFAULT_MAPPING_QUEUE_SIZE);
+        AtomicInteger threadNumber = new AtomicInteger();
+
+        return new ThreadPoolExecutor(
+                threads,
+                threads,
+                0L,
+                TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueSize),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "oilisoft-mapping-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                (runnable, executor) -> {
+                    if (executor.isShutdown())
+                        throw new RejectedExecutionException("DatabaseManagement has been closed");
+                    runnable.run();
+                }
+        );
+    }
+
+    /**
+     * Check that the database is reachable with the current driver
+     * @throws org.neo4j.driver.exceptions.Neo4jException If no connection could be established
+     */
+    @Override
+    public void verifyConnectivity() {
+        start();
+        driver.verifyConnectivity();
+    }
+
+    /**
+     * Close the database driver and release all pooled connections
+     * Asynchronous queries that are still running or waiting for a retry fail with a DatabaseAccessException
      */
-    public void start() {
-        driver = GraphDatabase.driver(uri, AuthTokens.basic(user, password));
+    @Override
+    public synchronized void close() {
+        if (driver == null)
+            return;
+
+        Driver closing = driver;
+        driver = null;
+        closing.close();
+
+        mappingExecutor.shutdown();
+        mappingExecutor = null;
+        retryScheduler.shutdownNow();
+        retryScheduler = null;
+        for (Map.Entry<CompletableFuture<?>, String> pending : pendingAsync.entrySet()) {
+            pending.getKey().completeExceptionally(new DatabaseAccessException(
+                    pending.getValue(), new IllegalStateException("DatabaseManagement has been closed"), false, 0));
+        }
+        metrics.stop();
     }
 
     /**
-     * Close the database driver
-     * @throws Exception
+     * Write a parameterized database transaction and receive records
+     * @param cypherQuery CypherQuery with its bound parameters
+     * @return Result of query as List of Records
+     * @throws DatabaseAccessException If the query failed and will not be retried
      */
     @Override
-    public void close() throws Exception {
-        driver.close();
+    public ArrayList<Record> writeTx(CypherQuery cypherQuery) {
+        ArrayList<Record> records = new ArrayList<>();
+        streamTx(AccessMode.WRITE, cypherQuery, records::add, records::clear);
+
+        return records;
     }
 
     /**
-     * Write a database transaction and receive records
-     * @param cypherQuery Cypher query as a String
+     * Read from the database in a read transaction and receive records
+     * On a cluster the read is routed to a follower, it still sees all previous writes of this object
+     * @param cypherQuery CypherQuery with its bound parameters
      * @return Result of query as List of Records
+     * @throws DatabaseAccessException If the query failed and will not be retried
      */
-    public ArrayList<Record> writeTx(String cypherQuery) {
+    @Override
+    public ArrayList<Record> readTx(CypherQuery cypherQuery) {
         ArrayList<Record> records = new ArrayList<>();
+        streamTx(AccessMode.READ, cypherQuery, records::add, records::clear);
+
+        return records;
+    }
+
+    /**
+     * Write a parameterized database transaction and stream its records to a visitor
+     * @param cypherQuery CypherQuery with its bound parameters
+     * @param visitor Handles each record as it arrives, may stop the stream by returning false
+     * @param onAttempt Runs before every attempt of the transaction, resets what the visitor collected (may be null)
+     * @return Number of records that have been visited in the successful attempt
+     * @throws DatabaseAccessException If the query failed and will not be retried
+     */
+    @Override
+    public long streamWriteTx(CypherQuery cypherQuery, RecordVisitor visitor, Runnable onAttempt) {
+        return streamTx(AccessMode.WRITE, cypherQuery, visitor, onAttempt);
+    }
+
+    /**
+     * Read from the database in a read transaction and stream the records to a visitor
+     * @param cypherQuery CypherQuery with its bound parameters
+     * @param visitor Handles each record as it arrives, may stop the stream by returning false
+     * @param onAttempt Runs before every attempt of the transaction, resets what the visitor collected (may be null)
+     * @return Number of records that have been visited in the successful attempt
+     * @throws DatabaseAccessException If the query failed and will not be retried
+     */
+    @Override
+    public long streamReadTx(CypherQuery cypherQuery, RecordVisitor visitor, Runnable onAttempt) {
+        return streamTx(AccessMode.READ, cypherQuery, visitor, onAttempt);
+    }
+
+    /**
+     * Run a query in a managed transaction and stream its records to a visitor.
+     * Records are pulled from the database in batches of the configured fetch size
+     * only as fast as the visitor handles them, so the result is never held in memory as a whole.
+     * The session starts from the bookmark of the last write (causal consistency)
+     * and write sessions leave their bookmark for the following transactions.
+     * Transactions that failed transiently are run again as the RetryPolicy allows.
+     * @param accessMode READ to route to followers, WRITE to route to the leader
+     * @param cypherQuery CypherQuery with its bound parameters
+     * @param visitor Handles each record as it arrives, may stop the stream by returning false
+     * @param onAttempt Runs before every attempt of the transaction, e.g. to drop records of a failed attempt (may be null)
+     * @return Number of records that have been visited
+     * @throws DatabaseAccessException If the query failed and will not be retried
+     */
+    private long streamTx(AccessMode accessMode, CypherQuery cypherQuery, RecordVisitor visitor, Runnable onAttempt) {
+        Query query = new Query(cypherQuery.getText(), cypherQuery.getParameters());
+
+        QueryStats stats = metrics.stats(cypherQuery);
+        long started = stats.start();
+        long visited = 0;
+        boolean failed = true;
+        try {
+            visited = retry(query.text(), stats, () -> runTx(accessMode, query, visitor, onAttempt));
+            failed = false;
+            return visited;
+        } finally {
+            stats.stop(started, visited, failed);
+        }
+    }
+
+    /**
+     * Write several queries in one managed transaction, they are committed together or not at all
+     * A transiently failed transaction is run again as a whole as the RetryPolicy allows
+     * @param cypherQueries CypherQueries with their bound parameters, run in this order
+     * @return Result of every query as List of Records
+     * @throws DatabaseAccessException If the transaction failed and will not be retried, nothing has been written then
+     */
+    @Override
+    public ArrayList<ArrayList<Record>> writeTx(List<CypherQuery> cypherQueries) {
+        ArrayList<Query> queries = new ArrayList<>();
+        StringBuilder text = new StringBuilder();
+        for (CypherQuery cypherQuery : cypherQueries) {
+            queries.add(new Query(cypherQuery.getText(), cypherQuery.getParameters()));
+            text.append(cypherQuery.getText()).append(";\n");
+        }
+
+        QueryStats stats = metrics.stats(cypherQueries);
+        long started = stats.start();
+        ArrayList<ArrayList<Record>> results = null;
+        try {
+            results = retry(text.toString(), stats, () -> runTx(queries));
+            return results;
+        } finally {
+            long rows = 0;
+            if (results != null) {
+                for (ArrayList<Record> records : results) {
+                    rows += records.size();
+                }
+            }
+            stats.stop(started, rows, results == null);
+        }
+    }
 
-        try (Session session = driver.session()) {
-            Result result = session.run(cypherQuery);
-            while(result.hasNext()) {
-                records.add(result.next());
+    /**
+     * Run the attempts of a transaction until it succeeds or the RetryPolicy gives up
+     * @param text Query text for the error message
+     * @param stats QueryStats that count the retries
+     * @param transaction Runs a single attempt of the transaction
+     * @return Result of the successful attempt
+     * @throws DatabaseAccessException If the transaction failed and will not be retried
+     */
+    private <T> T retry(String text, QueryStats stats, Supplier<T> transaction) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return transaction.get();
+            } catch (Exception e) {
+                if (!retryPolicy.canRetry(e, attempt))
+                    throw new DatabaseAccessException(text, e, RetryPolicy.isTransient(e), attempt);
+
+                long delay = retryPolicy.delayMillis(attempt);
+                System.out.println(retryMessage(e, attempt, delay));
+                stats.retried();
+                try {
+                    Thread.sleep(delay);
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    throw new DatabaseAccessException(text, e, true, attempt);
+                }
+            }
+        }
+    }
+
+    /**
+     * Run a single attempt of a managed write transaction with several queries
+     * @param queries The prepared queries
+     * @return Result of every query as List of Records
+     */
+    private ArrayList<ArrayList<Record>> runTx(List<Query> queries) {
+        try (Session session = driver.session(sessionConfig(AccessMode.WRITE))) {
+            ArrayList<ArrayList<Record>> results = session.writeTransaction(tx -> {
+                ArrayList<ArrayList<Record>> attemptResults = new ArrayList<>();
+                for (Query query : queries) {
+                    attemptResults.add(new ArrayList<>(tx.run(query).list()));
+                }
+                return attemptResults;
+            });
+            lastBookmark = session.lastBookmark();
+
+            return results;
+        }
+    }
+
+    /**
+     * Run a single attempt of a managed transaction
+     * @param accessMode READ to route to followers, WRITE to route to the leader
+     * @param query The prepared query
+     * @param visitor Handles each record as it arrives, may stop the stream by returning false
+     * @param onAttempt Runs before the transaction (may be null)
+     * @return Number of records that have been visited
+     */
+    private long runTx(AccessMode accessMode, Query query, RecordVisitor visitor, Runnable onAttempt) {
+        long visited;
+
+        try (Session session = driver.session(sessionConfig(accessMode))) {
+            TransactionWork<Long> work = tx -> {
+                if (onAttempt != null)
+                    onAttempt.run();
+
+                long count = 0;
+                Result result = tx.run(query);
+                while (result.hasNext()) {
+                    count++;
+                    if (!visitor.visit(result.next())) {
+                        // Discard the records that have not been fetched yet
+                        result.consume();
+                        break;
+                    }
+                }
+                return count;
+            };
+
+            if (accessMode == AccessMode.READ) {
+                visited = session.readTransaction(work);
+            } else {
+                visited = session.writeTransaction(work);
+                lastBookmark = session.lastBookmark();
+            }
+        }
+
+        return visited;
+    }
+
+    /**
+     * Read from the database without blocking the calling thread and map the records
+     * @param cypherQuery CypherQuery with its bound parameters
+     * @param mapper Turns the records into the result, runs on the mapping executor
+     * @return Stage that completes with the mapped result, or with a DatabaseAccessException
+     */
+    @Override
+    public <T> CompletionStage<T> readTxAsync(CypherQuery cypherQuery, Function<List<Record>, T> mapper) {
+        return txAsync(AccessMode.READ, cypherQuery, mapper);
+    }
+
+    /**
+     * Write a database transaction without blocking the calling thread and map the records
+     * @param cypherQuery CypherQuery with its bound parameters
+     * @param mapper Turns the records into the result, runs on the mapping executor
+     * @return Stage that completes with the mapped result, or with a DatabaseAccessException
+     */
+    @Override
+    public <T> CompletionStage<T> writeTxAsync(CypherQuery cypherQuery, Function<List<Record>, T> mapper) {
+        return txAsync(AccessMode.WRITE, cypherQuery, mapper);
+    }
+
+    /**
+     * Run a query in a managed transaction of an async session.
+     * No thread waits for the database, the records are received on the driver's I/O threads
+     * and handed to the mapping executor, so many queries can be in flight at once.
+     * Sessions take part in the same bookmark chain as the blocking transactions,
+     * transiently failed attempts are scheduled again without blocking a thread in between.
+     * @param accessMode READ to route to followers, WRITE to route to the leader
+     * @param cypherQuery CypherQuery with its bound parameters
+     * @param mapper Turns the records into the result
+     * @return Stage that completes with the mapped result after the session has been closed,
+     *         or with a DatabaseAccessException (also if this object is or gets closed)
+     */
+    private <T> CompletionStage<T> txAsync(AccessMode accessMode, CypherQuery cypherQuery, Function<List<Record>, T> mapper) {
+        Query query = new Query(cypherQuery.getText(), cypherQuery.getParameters());
+        CompletableFuture<T> mapped = new CompletableFuture<>();
+        if (driver == null) {
+            mapped.completeExceptionally(new DatabaseAccessException(
+                    query.text(), new IllegalStateException("DatabaseManagement has been closed"), false, 0));
+            return mapped;
+        }
+
+        QueryStats stats = metrics.stats(cypherQuery);
+        long started = stats.start();
+
+        CompletableFuture<List<Record>> completed = new CompletableFuture<>();
+        pendingAsync.put(completed, query.text());
+        completed.whenComplete((records, error) -> {
+            pendingAsync.remove(completed);
+            stats.stop(started, records == null ? 0 : records.size(), error != null);
+            if (error != null) {
+                mapped.completeExceptionally(error);
+                return;
             }
+
+            try {
+                ThreadPoolExecutor executor = mappingExecutor;
+                if (executor == null)
+                    throw new RejectedExecutionException("DatabaseManagement has been closed");
+
+                executor.execute(() -> {
+                    try {
+                        mapped.complete(mapper.apply(records));
+                    } catch (Throwable e) {
+                        mapped.completeExceptionally(e);
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                mapped.completeExceptionally(new DatabaseAccessException(query.text(), e, false, 0));
+            }
+        });
+        // close() may have missed the stage if it ran in between
+        if (driver == null)
+            completed.completeExceptionally(new DatabaseAccessException(
+                    query.text(), new IllegalStateException("DatabaseManagement has been closed"), false, 0));
+        else
+            runTxAsync(accessMode, query, 1, completed, stats);
+
+        return mapped;
+    }
+
+    /**
+     * Run an attempt of an async managed transaction and schedule the next one if it failed transiently
+     * @param accessMode READ to route to followers, WRITE to route to the leader
+     * @param query The prepared query
+     * @param attempt Number of this attempt, starting at 1
+     * @param completed Completed with the records or a DatabaseAccessException, once no attempt follows
+     * @param stats Statistics of the query's shape
+     */
+    private void runTxAsync(AccessMode accessMode, Query query, int attempt, CompletableFuture<List<Record>> completed, QueryStats stats) {
+        AsyncSession session;
+        try {
+            Driver current = driver;
+            if (current == null)
+                throw new IllegalStateException("DatabaseManagement has been closed");
+            session = current.asyncSession(sessionConfig(accessMode));
         } catch (Exception e) {
-            e.printStackTrace();
+            completed.completeExceptionally(new DatabaseAccessException(query.text(), e, false, attempt));
+            return;
         }
 
-        return records;
+        AsyncTransactionWork<CompletionStage<List<Record>>> work =
+                tx -> tx.runAsync(query).thenCompose(ResultCursor::listAsync);
+        CompletionStage<List<Record>> records = accessMode == AccessMode.READ
+                ? session.readTransactionAsync(work)
+                : session.writeTransactionAsync(work);
+
+        records.whenComplete((result, error) -> {
+            if (error == null && accessMode == AccessMode.WRITE)
+                lastBookmark = session.lastBookmark();
+
+            // Give the connection back to the pool before the result is handed on
+            session.closeAsync().whenComplete((ignored, closeError) -> {
+                if (error == null) {
+                    completed.complete(result);
+                    return;
+                }
+
+                Throwable cause = RetryPolicy.unwrap(error);
+                if (!retryPolicy.canRetry(cause, attempt)) {
+                    completed.completeExceptionally(
+                            new DatabaseAccessException(query.text(), cause, RetryPolicy.isTransient(cause), attempt));
+                    return;
+                }
+
+                long delay = retryPolicy.delayMillis(attempt);
+                System.out.println(retryMessage(cause, attempt, delay));
+                stats.retried();
+                try {
+                    ScheduledExecutorService scheduler = retryScheduler;
+                    if (scheduler == null)
+                        throw new RejectedExecutionException("DatabaseManagement has been closed");
+
+                    scheduler.schedule(
+                            () -> runTxAsync(accessMode, query, attempt + 1, completed, stats),
+                            delay,
+                            TimeUnit.MILLISECONDS
+                    );
+                } catch (RejectedExecutionException e) {
+                    completed.completeExceptionally(new DatabaseAccessException(query.text(), cause, true, attempt));
+                }
+            });
+        });
+    }
+
+    /**
+     * Describe a transient failure that is going to be retried
+     * @param error The failure
+     * @param attempt Number of the failed attempt
+     * @param delay Delay before the next attempt in milliseconds
+     * @return Log message
+     */
+    private String retryMessage(Throwable error, int attempt, long delay) {
+        return String.format(
+                "Transient database failure (attempt %d of %d), retrying in %d ms: %s",
+                attempt,
+                retryPolicy.getMaxAttempts(),
+                delay,
+                error.getMessage()
+        );
+    }
+
+    /**
+     * Configure a new session
+     * @param accessMode READ to route to followers, WRITE to route to the leader
+     * @return SessionConfig that starts after the last write
+     */
+    private SessionConfig sessionConfig(AccessMode accessMode) {
+        return SessionConfig.builder()
+                .withDefaultAccessMode(accessMode)
+                .withBookmarks(bookmarks())
+                .build();
+    }
+
+    /**
+     * Bookmarks a new session has to wait for, to read its own writes
+     * @return The bookmark of the last write transaction, if any
+     */
+    private ArrayList<Bookmark> bookmarks() {
+        ArrayList<Bookmark> bookmarks = new ArrayList<>();
+
+        Bookmark bookmark = lastBookmark;
+        if (bookmark != null && !bookmark.isEmpty())
+            bookmarks.add(bookmark);
+
+        return bookmarks;
+    }
+
+    /**
+     * Get the usage of the driver's connection pools
+     * @return Metrics of every pool, empty if the driver is closed or collects no metrics
+     */
+    private Collection<ConnectionPoolMetrics> connectionPoolMetrics() {
+        Driver current = driver;
+        if (current == null || !current.isMetricsEnabled())
+            return Collections.emptyList();
+
+        return current.metrics().connectionPoolMetrics();
+    }
+
+    @Override
+    public DatabaseMetrics getMetrics() {
+        return metrics;
     }
 }
@@ -0,0 +1,19 @@
+package backend;
+
+import org.neo4j.driver.Record;
+
+/**
+ * Visitor that handles the records of a query one by one while they are streamed
+ * @author Louis Wendler
+ * @since 1.0
+ * @version 1.0
+ */
+public interface RecordVisitor {
+
+    /**
+     * Handle the next record of a result
+     * @param record The record that has just arrived
+     * @return True to receive further records, false to stop the stream early
+     */
+    boolean visit(Record record);
+}
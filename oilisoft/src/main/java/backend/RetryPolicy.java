@@ -0,0 +1,122 @@
+package backend;
+
+import org.neo4j.driver.exceptions.ServiceUnavailableException;
+import org.neo4j.driver.exceptions.SessionExpiredException;
+import org.neo4j.driver.exceptions.TransientException;
+
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Decides which database failures are retried and how long to wait before the next attempt.
+ * The delay grows exponentially up to a maximum and is randomized by a jitter,
+ * so clients that failed together (e.g. during a leader election) do not retry together.
+ * @author Louis Wendler
+ * @since 1.0
+ * @version 1.0
+ */
+public class RetryPolicy {
+
+    /**
+     * Default retry settings, each can be overridden by the system property named in its comment
+     */
+    public static final int DEFAULT_MAX_ATTEMPTS = 5;           // oilisoft.db.retry.maxAttempts
+    public static final long DEFAULT_INITIAL_DELAY = 100;       // oilisoft.db.retry.initialDelay (ms)
+    public static final long DEFAULT_MAX_DELAY = 5000;          // oilisoft.db.retry.maxDelay (ms)
+
+    private static final double MULTIPLIER = 2.0;
+    private static final double JITTER = 0.2;
+
+    private final int maxAttempts;
+    private final long initialDelay;
+    private final long maxDelay;
+
+    /**
+     * Create a RetryPolicy
+     * @param maxAttempts Number of attempts including the first one
+     * @param initialDelay Delay before the second attempt in milliseconds
+     * @param maxDelay Upper bound of the delay in milliseconds
+     */
+    public RetryPolicy(int maxAttempts, long initialDelay, long maxDelay) {
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.initialDelay = Math.max(0, initialDelay);
+        this.maxDelay = Math.max(this.initialDelay, maxDelay);
+    }
+
+    /**
+     * Create the default RetryPolicy from the system properties
+     * @return RetryPolicy for the database transactions
+     */
+    public static RetryPolicy defaultPolicy() {
+        return new RetryPolicy(
+                Integer.getInteger("oilisoft.db.retry.maxAttempts", DEFAULT_MAX_ATTEMPTS),
+                Long.getLong("oilisoft.db.retry.initialDelay", DEFAULT_INITIAL_DELAY),
+                Long.getLong("oilisoft.db.retry.maxDelay", DEFAULT_MAX_DELAY)
+        );
+    }
+
+    /**
+     * Determine if a failure may disappear by itself, so the transaction can simply be run again
+     * (leader switches, unreachable cluster members, deadlocks, lock timeouts, ...)
+     * @param error The failure
+     * @return True if the failure is transient
+     */
+    public static boolean isTransient(Throwable error) {
+        Throwable cause = unwrap(error);
+
+        if (cause instanceof TransientException) {
+            // Transactions terminated on purpose must not be run again
+            String code = ((TransientException) cause).code();
+            return !"Neo.TransientError.Transaction.Terminated".equals(code)
+                    && !"Neo.TransientError.Transaction.LockClientStopped".equals(code);
+        }
+        return cause instanceof ServiceUnavailableException || cause instanceof SessionExpiredException;
+    }
+
+    /**
+     * Remove the wrappers that asynchronous stages put around a failure
+     * @param error The failure
+     * @return The original failure
+     */
+    static Throwable unwrap(Throwable error) {
+        Throwable cause = error;
+        while ((cause instanceof CompletionException || cause instanceof ExecutionException) && cause.getCause() != null) {
+            cause = cause.getCause();
+        }
+        return cause;
+    }
+
+    /**
+     * Determine if a failed attempt shall be followed by another one
+     * @param error The failure of the attempt
+     * @param attempt Number of the failed attempt, starting at 1
+     * @return True if the failure is transient and attempts are left
+     */
+    public boolean canRetry(Throwable error, int attempt) {
+        return attempt < maxAttempts && isTransient(error);
+    }
+
+    /**
+     * Compute the delay before the next attempt
+     * @param attempt Number of the failed attempt, starting at 1
+     * @return Delay in milliseconds
+     */
+    public long delayMillis(int attempt) {
+        double delay = Math.min(maxDelay, initialDelay * Math.pow(MULTIPLIER, attempt - 1));
+        double jitter = delay * JITTER * (2 * ThreadLocalRandom.current().nextDouble() - 1);
+        return Math.max(0, Math.round(delay + jitter));
+    }
+
+    public int getMaxAttempts() {
+        return maxAttempts;
+    }
+
+    public long getInitialDelay() {
+        return initialDelay;
+    }
+
+    public long getMaxDelay() {
+        return maxDelay;
+    }
+}
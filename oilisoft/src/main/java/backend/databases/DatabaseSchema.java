@@ -0,0 +1,75 @@
+package backend.databases;
+
+import backend.DatabaseAccess;
+import backend.DatabaseAccessException;
+import backend.entities.CypherQuery;
+import org.neo4j.driver.exceptions.Neo4jException;
+
+import java.util.ArrayList;
+
+/**
+ * Create the schema of the neo4j graph database
+ * Every node is identified by its name, a uniqueness constraint per label
+ * keeps the names unique and backs the lookups by name with an index
+ * @author Louis Wendler
+ * @since 1.0
+ * @version 1.0
+ */
+public class DatabaseSchema {
+
+    /**
+     * Create the constraints and indexes that are missing
+     * @param man The DatabaseAccess that is used to write the schema transactions
+     */
+    public DatabaseSchema(DatabaseAccess man) {
+        for (CypherQuery cypherQuery : cypherQueries()) {
+            try {
+                man.writeTx(cypherQuery);
+            } catch (DatabaseAccessException e) {
+                if (alreadyExists(e))
+                    continue;
+
+                // E.g. existing duplicates, the queries still work but need a label scan
+                System.out.println("Schema rule couldn't be created: " + cypherQuery.getText());
+                e.printStackTrace();
+            }
+        }
+    }
+
+    /**
+     * Create cypher queries for the uniqueness constraints on the names of all node labels
+     * Each schema change has to run in its own transaction
+     * @return List of CypherQuery
+     */
+    private ArrayList<CypherQuery> cypherQueries() {
+        ArrayList<CypherQuery> cypherQueries = new ArrayList<>();
+        cypherQueries.add(cypherUniqueName("OilRig", "o"));
+        cypherQueries.add(cypherUniqueName("Ship", "s"));
+        cypherQueries.add(cypherUniqueName("Worker", "w"));
+        return cypherQueries;
+    }
+
+    /**
+     * Create a cypher query for a uniqueness constraint on the name of a node label
+     * @param label Label of the nodes
+     * @param nodeVariable Variable which refers to the nodes in the query
+     * @return CypherQuery which represents the cypher query
+     */
+    private CypherQuery cypherUniqueName(String label, String nodeVariable) {
+        return new CypherQuery(String.format(
+                "CREATE CONSTRAINT ON (%s:%s) ASSERT %s.name IS UNIQUE", nodeVariable, label, nodeVariable
+        )).named("DatabaseSchema.cypherUniqueName");
+    }
+
+    /**
+     * Determine if a schema rule failed because it has been created before
+     * @param e The failure
+     * @return True if an equal constraint or index exists
+     */
+    private boolean alreadyExists(DatabaseAccessException e) {
+        Throwable cause = e.getCause();
+        return cause instanceof Neo4jException
+                && ((Neo4jException) cause).code() != null
+                && ((Neo4jException) cause).code().contains("AlreadyExists");
+    }
+}
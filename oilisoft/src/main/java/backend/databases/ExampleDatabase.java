@@ -1,6 +1,7 @@
 package backend.databases;
 
-import backend.DatabaseManagement;
+import backend.DatabaseAccess;
+import backend.entities.CypherQuery;
 import backend.entities.OilRig;
 
 import java.util.ArrayList;
@@ -15,18 +16,35 @@ public class ExampleDatabase {
 
     /**
      * Create a example neo4j graph database
-     * @param man The DatabaseManagement instance that is used to write the transactions
+     * @param man The DatabaseAccess that is used to write the transactions
      */
-    public ExampleDatabase(DatabaseManagement man) {
-        man.writeTx("MATCH (n) DETACH DELETE n");
+    public ExampleDatabase(DatabaseAccess man) {
+        deleteAll(man, FleetSettings.DEFAULT_BATCH_SIZE);
+        new DatabaseSchema(man);
         man.writeTx(cypherQuery());
     }
 
+    /**
+     * Delete all nodes and relationships in transactions of limited size,
+     * so also large (e.g. synthetic) databases can be cleared
+     * @param man The DatabaseAccess that is used to write the transactions
+     * @param batchSize Number of nodes that are deleted per transaction
+     */
+    public static void deleteAll(DatabaseAccess man, int batchSize) {
+        CypherQuery cypherQuery = new CypherQuery("MATCH (n) WITH n LIMIT $limit DETACH DELETE n RETURN count(*) AS count")
+                .parameter("limit", batchSize)
+                .named("ExampleDatabase.deleteAll");
+
+        while (man.writeTx(cypherQuery).get(0).get("count").asLong() > 0) {
+            // Delete the next batch
+        }
+    }
+
     /**
      * Create cypher query for an example neo4j graph database
-     * @return String which represents the cypher query
+     * @return CypherQuery which represents the cypher query
      */
-    private String cypherQuery() {
+    private CypherQuery cypherQuery() {
         ArrayList<OilRig> oilRigs = new ArrayList<>();
         OilRig oilRig0 = new OilRig("Sea Troll", 760, 4, 5);
         OilRig oilRig1 = new OilRig("Byford Dolphin", 520, 4, 4);
@@ -36,18 +54,19 @@ public class ExampleDatabase {
         OilRig oilRig3 = new OilRig("Perdido", 120, 2, 2);
         oilRigs.add(oilRig3);
 
-        return oilRig0.cypher("CREATE", "o0") + "\n"
-                + oilRig1.cypher("CREATE", "o1") + "\n"
-                + oilRig2.cypher("CREATE", "o2") + "\n"
-                + oilRig3.cypher("CREATE", "o3") + "\n"
-                + oilRig0.cypherRelationshipToOilRigs(oilRigs) + "\n"
-                + oilRig0.cypherCreateShips()
-                + oilRig0.cypherCreateWorkers()
-                + oilRig1.cypherCreateShips()
-                + oilRig1.cypherCreateWorkers()
-                + oilRig2.cypherCreateShips()
-                + oilRig2.cypherCreateWorkers()
-                + oilRig3.cypherCreateShips()
-                + oilRig3.cypherCreateWorkers();
+        return oilRig0.cypher("CREATE", "o0").append("\n")
+                .append(oilRig1.cypher("CREATE", "o1")).append("\n")
+                .append(oilRig2.cypher("CREATE", "o2")).append("\n")
+                .append(oilRig3.cypher("CREATE", "o3")).append("\n")
+                .append(oilRig0.cypherRelationshipToOilRigs(oilRigs)).append("\n")
+                .append(oilRig0.cypherCreateShips())
+                .append(oilRig0.cypherCreateWorkers())
+                .append(oilRig1.cypherCreateShips())
+                .append(oilRig1.cypherCreateWorkers())
+                .append(oilRig2.cypherCreateShips())
+                .append(oilRig2.cypherCreateWorkers())
+                .append(oilRig3.cypherCreateShips())
+                .append(oilRig3.cypherCreateWorkers())
+                .named("ExampleDatabase.cypherQuery");
     }
 }
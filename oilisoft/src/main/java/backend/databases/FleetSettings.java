@@ -0,0 +1,162 @@
+package backend.databases;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Size and shape of a synthetic fleet that is generated by the SyntheticDatabase
+ * Every setting can be overridden by the system property named in the comment of its default
+ * @author Louis Wendler
+ * @since 1.0
+ * @version 1.0
+ */
+public class FleetSettings {
+
+    public static final int DEFAULT_OIL_RIGS = 1000;                // oilisoft.fleet.oilRigs
+    public static final int DEFAULT_SMALL_SHIPS_PER_OIL_RIG = 4;    // oilisoft.fleet.smallShipsPerOilRig
+    public static final int DEFAULT_BIG_SHIPS_PER_OIL_RIG = 4;      // oilisoft.fleet.bigShipsPerOilRig
+    public static final int DEFAULT_WORKERS_PER_OIL_RIG = 200;      // oilisoft.fleet.workersPerOilRig
+    public static final int DEFAULT_PARTNERS_PER_OIL_RIG = 3;       // oilisoft.fleet.partnersPerOilRig
+    public static final String DEFAULT_JOB_MIX = "mechanic:1";      // oilisoft.fleet.jobMix (job:weight,...)
+    public static final long DEFAULT_SEED = 42;                     // oilisoft.fleet.seed
+    public static final int DEFAULT_BATCH_SIZE = 1000;              // oilisoft.fleet.batchSize
+    public static final int DEFAULT_PARALLELISM = 4;                // oilisoft.fleet.parallelism
+
+    private int oilRigs;
+    private int smallShipsPerOilRig;
+    private int bigShipsPerOilRig;
+    private int workersPerOilRig;
+    private int partnersPerOilRig;
+    private LinkedHashMap<String, Double> jobMix;
+    private long seed;
+    private int batchSize;
+    private int parallelism;
+
+    /**
+     * Create FleetSettings from the system properties or the defaults
+     */
+    public FleetSettings() {
+        oilRigs = Integer.getInteger("oilisoft.fleet.oilRigs", DEFAULT_OIL_RIGS);
+        smallShipsPerOilRig = Integer.getInteger("oilisoft.fleet.smallShipsPerOilRig", DEFAULT_SMALL_SHIPS_PER_OIL_RIG);
+        bigShipsPerOilRig = Integer.getInteger("oilisoft.fleet.bigShipsPerOilRig", DEFAULT_BIG_SHIPS_PER_OIL_RIG);
+        workersPerOilRig = Integer.getInteger("oilisoft.fleet.workersPerOilRig", DEFAULT_WORKERS_PER_OIL_RIG);
+        partnersPerOilRig = Integer.getInteger("oilisoft.fleet.partnersPerOilRig", DEFAULT_PARTNERS_PER_OIL_RIG);
+        jobMix = parseJobMix(System.getProperty("oilisoft.fleet.jobMix", DEFAULT_JOB_MIX));
+        seed = Long.getLong("oilisoft.fleet.seed", DEFAULT_SEED);
+        batchSize = Integer.getInteger("oilisoft.fleet.batchSize", DEFAULT_BATCH_SIZE);
+        parallelism = Integer.getInteger("oilisoft.fleet.parallelism", DEFAULT_PARALLELISM);
+    }
+
+    /**
+     * Parse a job mix of the form "mechanic:6,driller:3,medic:1"
+     * @param text The job mix
+     * @return Weight of every job
+     */
+    public static LinkedHashMap<String, Double> parseJobMix(String text) {
+        LinkedHashMap<String, Double> jobMix = new LinkedHashMap<>();
+        for (String entry : text.split(",")) {
+            String[] jobAndWeight = entry.trim().split(":");
+            if (jobAndWeight[0].isEmpty())
+                continue;
+
+            double weight = jobAndWeight.length > 1 ? Double.parseDouble(jobAndWeight[1].trim()) : 1;
+            jobMix.put(jobAndWeight[0].trim(), weight);
+        }
+        return jobMix;
+    }
+
+    public FleetSettings withOilRigs(int oilRigs) {
+        this.oilRigs = oilRigs;
+        return this;
+    }
+
+    public FleetSettings withSmallShipsPerOilRig(int smallShipsPerOilRig) {
+        this.smallShipsPerOilRig = smallShipsPerOilRig;
+        return this;
+    }
+
+    public FleetSettings withBigShipsPerOilRig(int bigShipsPerOilRig) {
+        this.bigShipsPerOilRig = bigShipsPerOilRig;
+        return this;
+    }
+
+    public FleetSettings withWorkersPerOilRig(int workersPerOilRig) {
+        this.workersPerOilRig = workersPerOilRig;
+        return this;
+    }
+
+    public FleetSettings withPartnersPerOilRig(int partnersPerOilRig) {
+        this.partnersPerOilRig = partnersPerOilRig;
+        return this;
+    }
+
+    public FleetSettings withJobMix(Map<String, Double> jobMix) {
+        this.jobMix = new LinkedHashMap<>(jobMix);
+        return this;
+    }
+
+    public FleetSettings withSeed(long seed) {
+        this.seed = seed;
+        return this;
+    }
+
+    public FleetSettings withBatchSize(int batchSize) {
+        this.batchSize = batchSize;
+        return this;
+    }
+
+    public FleetSettings withParallelism(int parallelism) {
+        this.parallelism = parallelism;
+        return this;
+    }
+
+    public int getOilRigs() {
+        return oilRigs;
+    }
+
+    public int getSmallShipsPerOilRig() {
+        return smallShipsPerOilRig;
+    }
+
+    public int getBigShipsPerOilRig() {
+        return bigShipsPerOilRig;
+    }
+
+    public int getWorkersPerOilRig() {
+        return workersPerOilRig;
+    }
+
+    public int getPartnersPerOilRig() {
+        return partnersPerOilRig;
+    }
+
+    public LinkedHashMap<String, Double> getJobMix() {
+        return jobMix;
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    public int getBatchSize() {
+        return Math.max(1, batchSize);
+    }
+
+    public int getParallelism() {
+        return Math.max(1, parallelism);
+    }
+
+    @Override
+    public String toString() {
+        return String.format(
+                "%d oil rigs with %d small ships, %d big ships, %d workers and %d partners each, jobs %s, seed %d",
+                oilRigs,
+                smallShipsPerOilRig,
+                bigShipsPerOilRig,
+                workersPerOilRig,
+                partnersPerOilRig,
+                jobMix,
+                seed
+        );
+    }
+}
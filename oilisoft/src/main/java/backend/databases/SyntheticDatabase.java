@@ -0,0 +1,270 @@
+package backend.databases;
+
+import backend.DatabaseAccess;
+import backend.DatabaseAccessException;
+import backend.entities.CypherQuery;
+import backend.entities.OilRig;
+import backend.entities.Ship;
+import backend.entities.Worker;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.LongFunction;
+
+/**
+ * Create a synthetic neo4j graph database of any size, e.g. for load tests.
+ * The fleet is generated row by row from the FleetSettings and its seed,
+ * the rows are written in batches by a bounded number of parallel transactions,
+ * so only a few batches are held in memory at any time.
+ * @author Louis Wendler
+ * @since 1.0
+ * @version 1.0
+ */
+public class SyntheticDatabase {
+
+    private static final int SMALL_SHIP_CAPACITY = 50;
+    private static final int BIG_SHIP_CAPACITY = 100;
+
+    private final DatabaseAccess man;
+    private final FleetSettings settings;
+
+    /**
+     * Replace the content of the database by a synthetic fleet
+     * @param man The DatabaseAccess that is used to write the transactions
+     * @param settings Size and shape of the fleet
+     * @throws DatabaseAccessException If a batch couldn't be written
+     */
+    public SyntheticDatabase(DatabaseAccess man, FleetSettings settings) {
+        this.man = man;
+        this.settings = settings;
+
+        System.out.println("Generating " + settings);
+        ExampleDatabase.deleteAll(man, settings.getBatchSize());
+        new DatabaseSchema(man);
+
+        createOilRigs();
+        createPartners();
+        createShips();
+        createWorkers();
+    }
+
+    /**
+     * Create the oil rigs
+     */
+    private void createOilRigs() {
+        load(
+                "SyntheticDatabase.createOilRigs",
+                "UNWIND $rows AS row CREATE (o:OilRig) SET o = row",
+                settings.getOilRigs(),
+                i -> oilRig(i).getAttributes()
+        );
+    }
+
+    /**
+     * Relate every oil rig to its preceding oil rigs as partners
+     * (like ExampleDatabase, but limited to the nearest ones)
+     */
+    private void createPartners() {
+        int partners = Math.min(settings.getPartnersPerOilRig(), Math.max(0, settings.getOilRigs() - 1));
+        if (partners == 0)
+            return;
+
+        load(
+                "SyntheticDatabase.createPartners",
+                "UNWIND $rows AS row\n"
+                        + "MATCH (a:OilRig {name: row.from})\n"
+                        + "MATCH (b:OilRig {name: row.to})\n"
+                        + "CREATE (a)-[:PARTNER]->(b)",
+                (long) settings.getOilRigs() * partners,
+                i -> {
+                    int oilRig = (int) (i / partners);
+                    int partner = oilRig - (int) (i % partners) - 1;
+                    // The first oil rigs have fewer predecessors
+                    if (partner < 0)
+                        return null;
+
+                    HashMap<String, Object> row = new HashMap<>();
+                    row.put("from", oilRigName(oilRig));
+                    row.put("to", oilRigName(partner));
+                    return row;
+                }
+        );
+    }
+
+    /**
+     * Create the ships and anchor them at their oil rigs
+     */
+    private void createShips() {
+        int smallShips = settings.getSmallShipsPerOilRig();
+        int ships = smallShips + settings.getBigShipsPerOilRig();
+
+        load(
+                "SyntheticDatabase.createShips",
+                "UNWIND $rows AS row\n"
+                        + "MATCH (o:OilRig {name: row.oilRig})\n"
+                        + "CREATE (s:Ship)-[:ANCHORED]->(o) SET s = row.node",
+                (long) settings.getOilRigs() * ships,
+                i -> {
+                    int oilRig = (int) (i / ships);
+                    int index = (int) (i % ships);
+
+                    Ship ship = index < smallShips
+                            ? new Ship("smallShip" + index + oilRigVariable(oilRig), SMALL_SHIP_CAPACITY)
+                            : new Ship("bigShip" + (index - smallShips) + oilRigVariable(oilRig), BIG_SHIP_CAPACITY);
+                    return nodeRow(ship.getAttributes(), oilRig);
+                }
+        );
+    }
+
+    /**
+     * Create the workers and deploy them at their oil rigs, their jobs are drawn from the job mix
+     */
+    private void createWorkers() {
+        int workers = settings.getWorkersPerOilRig();
+
+        String[] jobs = settings.getJobMix().keySet().toArray(new String[0]);
+        double[] cumulativeWeights = new double[jobs.length];
+        double totalWeight = 0;
+        for (int i = 0; i < jobs.length; i++) {
+            totalWeight += settings.getJobMix().get(jobs[i]);
+            cumulativeWeights[i] = totalWeight;
+        }
+        if (jobs.length == 0) {
+            jobs = new String[] {"mechanic"};
+            cumulativeWeights = new double[] {1};
+            totalWeight = 1;
+        }
+
+        String[] jobNames = jobs;
+        double[] weights = cumulativeWeights;
+        double weightSum = totalWeight;
+        Random random = new Random(settings.getSeed());
+
+        load(
+                "SyntheticDatabase.createWorkers",
+                "UNWIND $rows AS row\n"
+                        + "MATCH (o:OilRig {name: row.oilRig})\n"
+                        + "CREATE (w:Worker)-[:DEPLOYED]->(o) SET w = row.node",
+                (long) settings.getOilRigs() * workers,
+                i -> {
+                    int oilRig = (int) (i / workers);
+                    int index = (int) (i % workers);
+
+                    double draw = random.nextDouble() * weightSum;
+                    int job = 0;
+                    while (job < jobNames.length - 1 && draw >= weights[job]) {
+                        job++;
+                    }
+
+                    Worker worker = new Worker("worker" + index + oilRigVariable(oilRig), jobNames[job]);
+                    return nodeRow(worker.getAttributes(), oilRig);
+                }
+        );
+    }
+
+    /**
+     * Write generated rows in batches, with at most FleetSettings.getParallelism() batches in flight
+     * The rows are generated on the calling thread in order, which keeps the fleet reproducible by its seed
+     * @param name Name of the query in the DatabaseMetrics
+     * @param cypher Query that receives a batch as parameter $rows
+     * @param rowCount Number of rows
+     * @param row Generates the row of an index, rows that are null are skipped
+     * @throws DatabaseAccessException If a batch couldn't be written
+     */
+    private void load(String name, String cypher, long rowCount, LongFunction<Map<String, Object>> row) {
+        int batchSize = settings.getBatchSize();
+        int parallelism = settings.getParallelism();
+        long startTime = System.currentTimeMillis();
+
+        Semaphore inFlight = new Semaphore(parallelism);
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+
+        ArrayList<Map<String, Object>> rows = new ArrayList<>(batchSize);
+        for (long i = 0; i < rowCount && failure.get() == null; i++) {
+            Map<String, Object> generated = row.apply(i);
+            if (generated != null)
+                rows.add(generated);
+            if (rows.isEmpty() || (rows.size() < batchSize && i < rowCount - 1))
+                continue;
+
+            inFlight.acquireUninterruptibly();
+            CypherQuery cypherQuery = new CypherQuery(cypher)
+                    .parameter("rows", rows)
+                    .named(name);
+            man.writeTxAsync(cypherQuery).whenComplete((records, error) -> {
+                if (error != null)
+                    failure.compareAndSet(null, error);
+                inFlight.release();
+            });
+            rows = new ArrayList<>(batchSize);
+        }
+
+        // Wait for the last batches
+        inFlight.acquireUninterruptibly(parallelism);
+        inFlight.release(parallelism);
+
+        Throwable error = failure.get();
+        if (error != null) {
+            Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+            if (cause instanceof DatabaseAccessException)
+                throw (DatabaseAccessException) cause;
+            throw new DatabaseAccessException(cypher, cause, false, 1);
+        }
+
+        System.out.println(String.format(
+                "%s: %d rows in %d ms", name, rowCount, System.currentTimeMillis() - startTime
+        ));
+    }
+
+    /**
+     * Create the row of a node that is related to an oil rig
+     * @param attributes The node's attributes
+     * @param oilRig Index of the oil rig
+     * @return Row with the oil rig's name and the node's attributes
+     */
+    private HashMap<String, Object> nodeRow(HashMap<String, Object> attributes, int oilRig) {
+        HashMap<String, Object> row = new HashMap<>();
+        row.put("oilRig", oilRigName(oilRig));
+        row.put("node", attributes);
+        return row;
+    }
+
+    private OilRig oilRig(long index) {
+        return new OilRig(
+                oilRigName((int) index),
+                settings.getWorkersPerOilRig(),
+                settings.getSmallShipsPerOilRig(),
+                settings.getBigShipsPerOilRig()
+        );
+    }
+
+    private String oilRigName(int index) {
+        return "Oil Rig " + index;
+    }
+
+    private String oilRigVariable(int index) {
+        return "o" + index;
+    }
+
+    /**
+     * Generate a synthetic fleet, it is shaped by the oilisoft.fleet.* system properties
+     * @param args URI, user name and password of the database
+     */
+    public static void main(String[] args) throws Exception {
+        if (args.length < 3) {
+            System.out.println("Usage: SyntheticDatabase <uri> <user> <password>");
+            return;
+        }
+
+        try (DatabaseAccess man = DatabaseAccess.open(args[0], args[1], args[2])) {
+            man.verifyConnectivity();
+            new SyntheticDatabase(man, new FleetSettings());
+            System.out.print(man.getMetrics().dump());
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package backend.entities;
+
+import java.util.HashMap;
+
+/** Represents a cypher query as query text plus bound parameters
+ * Values are never inlined into the text, so queries of the same shape share one text
+ * and the database can reuse its cached execution plan
+ * @author Louis Wendler
+ * @since 1.0
+ * @version 1.0
+ */
+public class CypherQuery {
+
+    private final StringBuilder text;
+    private final HashMap<String, Object> parameters;
+    private String name;
+
+    /**
+     * Create an empty CypherQuery
+     */
+    public CypherQuery() {
+        text = new StringBuilder();
+        parameters = new HashMap<>();
+    }
+
+    /**
+     * Create a CypherQuery without parameters
+     * @param text Cypher query text
+     */
+    public CypherQuery(String text) {
+        this();
+        this.text.append(text);
+    }
+
+    /**
+     * Append cypher text to the query
+     * @param text Cypher text (must not contain literal values)
+     * @return This CypherQuery
+     */
+    public CypherQuery append(String text) {
+        this.text.append(text);
+        return this;
+    }
+
+    /**
+     * Append another query's text and parameters to this query
+     * The name of this query is kept
+     * @param other The CypherQuery that shall be appended
+     * @return This CypherQuery
+     */
+    public CypherQuery append(CypherQuery other) {
+        text.append(other.text);
+        parameters.putAll(other.parameters);
+        return this;
+    }
+
+    /**
+     * Bind a value to a parameter of the query
+     * @param name Name of the parameter (referenced as $name in the text)
+     * @param value Value of the parameter
+     * @return This CypherQuery
+     */
+    public CypherQuery parameter(String name, Object value) {
+        parameters.put(name, value);
+        return this;
+    }
+
+    /**
+     * Name the query after the method that built it, e.g. "OilRig.cypherCountWorkers"
+     * Queries are reported under this name in the DatabaseMetrics
+     * @param name Name of the query
+     * @return This CypherQuery
+     */
+    public CypherQuery named(String name) {
+        this.name = name;
+        return this;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getText() {
+        return text.toString();
+    }
+
+    public HashMap<String, Object> getParameters() {
+        return parameters;
+    }
+
+    @Override
+    public String toString() {
+        return text + " " + parameters;
+    }
+}
@@ -1,9 +1,10 @@
 package backend.entities;
 
 import java.util.HashMap;
-import java.util.Iterator;
+import java.util.Map;
 
 /** Represents a Node of the neo4j graph database
+ * The attributes are only mapped when they are first needed, so plain entities stay small.
  * @author Louis Wendler
  * @since 1.0
  * @version 1.0
@@ -15,6 +16,7 @@ public abstract class Node {
     private HashMap<String, Object> attributes;
 
     private String nodeVariable;
+    private int cachedHashCode;
 
     /**
      * Create a Node
@@ -24,51 +26,62 @@ public abstract class Node {
     public Node(String label, NodeLabels nodeLabel) {
         this.label = label;
         this.nodeLabel = nodeLabel;
-
-        attributes = new HashMap<>();
     }
 
     /**
      * Map attributes as key-value pairs in HashMap
      * @return
      */
-    abstract HashMap initAttributes();
+    abstract HashMap<String, Object> initAttributes();
 
     /**
-     * Create String of attributes to match the node
-     * @return String of attributes
+     * Create cypher query for this Node
+     * @param clause Cypher clause (MATCH, CREATE,...)
+     * @param nodeVariable Variable which refers to the node in the specific query
+     * @return CypherQuery whose attributes are bound as parameters
      */
-    private String getAttributeString() {
-        String attributeString = "";
-
-        for (Iterator<String> keys = attributes.keySet().iterator(); keys.hasNext();) {
-            String key = keys.next();
+    public CypherQuery cypher(String clause, String nodeVariable) {
+        return appendCypher(new CypherQuery(), clause, nodeVariable);
+    }
 
-            Object value = attributes.get(key);
-            if (value == null) continue;
+    /**
+     * Render the cypher pattern of this Node at the end of a query
+     * The pattern is written straight into the query's buffer, attributes are bound as parameters
+     * @param cypherQuery The query the pattern is appended to
+     * @param clause Cypher clause (MATCH, CREATE,...)
+     * @param nodeVariable Variable which refers to the node in the specific query
+     * @return The given CypherQuery
+     */
+    public CypherQuery appendCypher(CypherQuery cypherQuery, String clause, String nodeVariable) {
+        this.nodeVariable = nodeVariable;
+        cypherQuery.append(clause).append(" (").append(nodeVariable).append(":").append(label).append(" {");
 
-            String valueString = value.toString();
-            if (value instanceof String)
-                valueString = "\"" + valueString + "\"";
+        String separator = "";
+        for (Map.Entry<String, Object> attribute : getAttributes().entrySet()) {
+            if (attribute.getValue() == null) continue;
 
-            if (keys.hasNext())
-                attributeString += String.format("%s:%s, ", key, valueString);
-            else
-                attributeString += String.format("%s:%s", key, valueString);
+            String parameter = nodeVariable + "_" + attribute.getKey();
+            cypherQuery.append(separator).append(attribute.getKey()).append(":$").append(parameter)
+                    .parameter(parameter, attribute.getValue());
+            separator = ", ";
         }
 
-        return attributeString;
+        return cypherQuery.append("})");
     }
 
     /**
-     * Create cypher query for this Node
-     * @param clause Cypher clause (MATCH, CREATE,...)
+     * Create cypher query that matches this Node by its unique name only
+     * The lookup is served by the index of the name's uniqueness constraint (see DatabaseSchema)
      * @param nodeVariable Variable which refers to the node in the specific query
-     * @return String which represents the cypher query
+     * @return CypherQuery whose name is bound as parameter
      */
-    public String cypher(String clause, String nodeVariable) {
+    public CypherQuery cypherMatch(String nodeVariable) {
         this.nodeVariable = nodeVariable;
-        return String.format("%s (%s:%s {%s})", clause, nodeVariable, label, getAttributeString());
+        String parameter = nodeVariable + "_name";
+        return new CypherQuery()
+                .append("MATCH (").append(nodeVariable).append(":").append(label)
+                .append(" {name:$").append(parameter).append("})")
+                .parameter(parameter, getName());
     }
 
     /**
@@ -77,42 +90,69 @@ public abstract class Node {
      * @param otherNodeVariable Variable which refers to the other node in the specific query
      * @param relationship Relationship that has to be worked with
      * @param relationshipVariable Variable which refers to the relationship in the specific query
-     * @return String which represents the cypher query
+     * @return CypherQuery whose relationship attributes are bound as parameters
      */
-    public String cypherRelationshipTo(String clause, String otherNodeVariable, Relationship relationship, String relationshipVariable) {
-        return String.format("%s (%s)-%s->(%s)", clause, nodeVariable, relationship.getCypherString(relationshipVariable), otherNodeVariable);
+    public CypherQuery cypherRelationshipTo(String clause, String otherNodeVariable, Relationship relationship, String relationshipVariable) {
+        return appendRelationshipTo(new CypherQuery(), clause, otherNodeVariable, relationship, relationshipVariable);
+    }
+
+    /**
+     * Render the cypher pattern of a Relationship at the end of a query
+     * @param cypherQuery The query the pattern is appended to
+     * @param clause Cypher clause (MATCH, CREATE,...)
+     * @param otherNodeVariable Variable which refers to the other node in the specific query
+     * @param relationship Relationship that has to be worked with
+     * @param relationshipVariable Variable which refers to the relationship in the specific query
+     * @return The given CypherQuery
+     */
+    public CypherQuery appendRelationshipTo(CypherQuery cypherQuery, String clause, String otherNodeVariable, Relationship relationship, String relationshipVariable) {
+        cypherQuery.append(clause).append(" (").append(nodeVariable).append(")-");
+        return relationship.appendCypher(cypherQuery, relationshipVariable)
+                .append("->(").append(otherNodeVariable).append(")");
     }
 
     /**
      * Check this Node and other for equality
-     * @param other Node
-     * @return True if equal
+     * Nodes are identified by their label and unique name,
+     * blueprint nodes without a name are only equal to themselves
+     * @param other Object
+     * @return True if other is a Node with the same label and name
      */
-    public boolean equals(Node other) {
-        if (!label.equals(other.label))
+    @Override
+    public boolean equals(Object other) {
+        if (this == other)
+            return true;
+        if (!(other instanceof Node))
             return false;
 
-        if (attributes.keySet().size() != other.attributes.keySet().size())
+        Node otherNode = (Node) other;
+        if (getName() == null || otherNode.getName() == null)
             return false;
 
-        Iterator<String> keys = attributes.keySet().iterator();
-        Iterator<String> otherKeys = other.attributes.keySet().iterator();
-
-        while (keys.hasNext() && otherKeys.hasNext()) {
-            String key = keys.next();
-            String otherKey = otherKeys.next();
-
-            if (!key.equals(otherKey))
-                return false;
-
-            Object value = attributes.get(key);
-            Object otherValue = other.attributes.get(otherKey);
+        return label.equals(otherNode.label) && getName().equals(otherNode.getName());
+    }
 
-            if (!value.equals(otherValue))
-                return false;
-        }
+    /**
+     * Hash code of the Node's identity (label and name), computed once
+     * @return The hash code
+     */
+    @Override
+    public int hashCode() {
+        if (getName() == null)
+            return System.identityHashCode(this);
+
+        if (cachedHashCode == 0)
+            cachedHashCode = 31 * label.hashCode() + getName().hashCode();
+        return cachedHashCode;
+    }
 
-        return true;
+    /**
+     * Check if this Node and other have the same attributes (stored properties)
+     * @param other Node
+     * @return True if the labels and all attributes are equal
+     */
+    public boolean hasSameAttributes(Node other) {
+        return label.equals(other.label) && getAttributes().equals(other.getAttributes());
     }
 
     public NodeLabels getNodeLabel() {
@@ -133,7 +173,14 @@ public abstract class Node {
         this.attributes = attributes;
     }
 
+    /**
+     * Get the attributes, they are mapped by initAttributes() on first use
+     * Blueprint nodes without a name have no attributes
+     * @return The attributes as HashMap
+     */
     public HashMap<String, Object> getAttributes() {
+        if (attributes == null)
+            attributes = getName() == null ? new HashMap<>() : initAttributes();
         return attributes;
     }
 }
\ No newline at end of file
@@ -11,17 +11,12 @@ import java.util.HashMap;
 public class OilRig extends Node {
 
     private final String name;
-    private final Integer initNumberWorkers;
-    private Integer numberWorkers;
-    private final Integer minWorkers;
-    private final Integer maxWorkers;
-    private final Integer initNumberSmallShips;
-    private Integer numberSmallShips;
-    private final Integer maxNumberSmallShips;
-    private final Integer initNumberBigShips;
-    private Integer numberBigShips;
-    private final Integer maxNumberBigShips;
-    private Integer numberShips;
+    private final int initNumberWorkers;
+    private final int numberWorkers;
+    private final int initNumberSmallShips;
+    private final int numberSmallShips;
+    private final int initNumberBigShips;
+    private final int numberBigShips;
 
     /**
      * Create a OilRig
@@ -35,37 +30,45 @@ public class OilRig extends Node {
                   int initNumberSmallShips,
                   int initNumberBigShips) {
 
+        this(name, initNumberWorkers, initNumberSmallShips, initNumberBigShips,
+                initNumberWorkers, initNumberSmallShips, initNumberBigShips);
+    }
+
+    /**
+     * Create a OilRig with its current stats, the stats never change afterwards
+     * The limits (minimum/maximum workers and ships) are derived from the initial stats
+     * @param name The oil rig's unique name
+     * @param initNumberWorkers Initial number of workers who are deployed on the oil rig
+     * @param initNumberSmallShips Initial number of small ships which anchor on the oil rig
+     * @param initNumberBigShips Initial number of big ships which anchor on the oil rig
+     * @param numberWorkers Number of workers who are deployed on the oil rig
+     * @param numberSmallShips Number of small ships which anchor on the oil rig
+     * @param numberBigShips Number of big ships which anchor on the oil rig
+     */
+    public OilRig(String name,
+                  int initNumberWorkers,
+                  int initNumberSmallShips,
+                  int initNumberBigShips,
+                  int numberWorkers,
+                  int numberSmallShips,
+                  int numberBigShips) {
+
         super("OilRig", NodeLabels.OIL_RIG);
 
         this.name = name;
         this.initNumberWorkers = initNumberWorkers;
-        this.minWorkers = (int)(0.1 * initNumberWorkers);
-        this.maxWorkers = 2 * initNumberWorkers;
+        this.numberWorkers = numberWorkers;
         this.initNumberSmallShips = initNumberSmallShips;
-        this.numberSmallShips = initNumberSmallShips;
-        this.maxNumberSmallShips = 4 + initNumberSmallShips;
+        this.numberSmallShips = numberSmallShips;
         this.initNumberBigShips = initNumberBigShips;
-        this.numberBigShips = initNumberBigShips;
-        this.maxNumberBigShips = 4 + initNumberBigShips;
-        this.numberShips = initNumberSmallShips + initNumberBigShips;
-
-        super.setAttributes(initAttributes());
+        this.numberBigShips = numberBigShips;
     }
 
     /**
      * Create a oil rig node as blueprint
      */
     public OilRig() {
-        super("OilRig", NodeLabels.OIL_RIG);
-
-        this.name = null;
-        this.initNumberWorkers = null;
-        this.minWorkers = null;
-        this.maxWorkers = null;
-        this.initNumberSmallShips = null;
-        this.maxNumberSmallShips = null;
-        this.initNumberBigShips = null;
-        this.maxNumberBigShips = null;
+        this(null, 0, 0, 0);
     }
 
     /**
@@ -73,13 +76,13 @@ public class OilRig extends Node {
      * @return The oil rig's attributes as HashMap
      */
     @Override
-    protected HashMap initAttributes() {
+    protected HashMap<String, Object> initAttributes() {
         HashMap<String, Object> attributes = new HashMap<>();
 
-        attributes.put("name", name);
-        attributes.put("initNumberWorkers", initNumberWorkers);
-        attributes.put("initNumberSmallShips", initNumberSmallShips);
-        attributes.put("initNumberBigShips", initNumberBigShips);
+        attributes.put("name", getName());
+        attributes.put("initNumberWorkers", getInitNumberWorkers());
+        attributes.put("initNumberSmallShips", getInitNumberSmallShips());
+        attributes.put("initNumberBigShips", getInitNumberBigShips());
 
         return attributes;
     }
@@ -87,126 +90,149 @@ public class OilRig extends Node {
     /**
      * Create a cypher query that relates oil rigs as partners
      * @param oilRigs All other oil rigs which shall be related
-     * @return String which represents the cypher query
+     * @return CypherQuery which represents the cypher query
      */
-    public String cypherRelationshipToOilRigs(ArrayList<OilRig> oilRigs) {
-        String cypherQuery = "";
+    public CypherQuery cypherRelationshipToOilRigs(ArrayList<OilRig> oilRigs) {
+        CypherQuery cypherQuery = new CypherQuery();
         Relationship partner = new Relationship("PARTNER");
 
         oilRigs.add(this);
         for (int i = 1; i < oilRigs.size(); i++) {
             OilRig newOilRig = oilRigs.get(i);
             for (int j = i-1; j > -1; j--) {
-                cypherQuery += newOilRig.cypherRelationshipTo("CREATE", oilRigs.get(j).getNodeVariable(), partner, "") + "\n";
+                newOilRig.appendRelationshipTo(cypherQuery, "CREATE", oilRigs.get(j).getNodeVariable(), partner, "")
+                        .append("\n");
             }
         }
 
-        return cypherQuery;
+        return cypherQuery.named("OilRig.cypherRelationshipToOilRigs");
     }
 
     /**
      * Create a cypher query that creates and relates an all initial ships
-     * @return String which represents the cypher query
+     * @return CypherQuery which represents the cypher query
      */
-    public String cypherCreateShips() {
-        String cypherQuery = "";
+    public CypherQuery cypherCreateShips() {
+        CypherQuery cypherQuery = new CypherQuery();
         Relationship anchored = new Relationship("ANCHORED");
 
-        for (int i = 0; i < initNumberSmallShips; i++) {
-            String iToString = Integer.toString(i);
-            Ship ship = new Ship("smallShip" + iToString + getNodeVariable(), 50);
-            cypherQuery += ship.cypher("CREATE", ship.getName()) + "\n";
-            cypherQuery += ship.cypherRelationshipTo("CREATE", getNodeVariable(), anchored, "") + "\n";
+        for (int i = 0; i < getInitNumberSmallShips(); i++) {
+            Ship ship = new Ship("smallShip" + i + getNodeVariable(), 50);
+            ship.appendCypher(cypherQuery, "CREATE", ship.getName()).append("\n");
+            ship.appendRelationshipTo(cypherQuery, "CREATE", getNodeVariable(), anchored, "").append("\n");
         }
 
-        for (int i = 0; i < initNumberBigShips; i++) {
-            String iToString = Integer.toString(i);
-            Ship ship = new Ship("bigShip" + iToString + getNodeVariable(), 100);
-            cypherQuery += ship.cypher("CREATE", ship.getName()) + "\n";
-            cypherQuery += ship.cypherRelationshipTo("CREATE", getNodeVariable(), anchored, "") + "\n";
+        for (int i = 0; i < getInitNumberBigShips(); i++) {
+            Ship ship = new Ship("bigShip" + i + getNodeVariable(), 100);
+            ship.appendCypher(cypherQuery, "CREATE", ship.getName()).append("\n");
+            ship.appendRelationshipTo(cypherQuery, "CREATE", getNodeVariable(), anchored, "").append("\n");
         }
 
-        return cypherQuery;
+        return cypherQuery.named("OilRig.cypherCreateShips");
     }
 
     /**
      * Create a cypher query that finds all ships which anchor on this oil rig
-     * @return String which represents the cypher query
+     * @return CypherQuery which represents the cypher query
      */
-    public String cypherMatchShips() {
+    public CypherQuery cypherMatchShips() {
         Ship ship = new Ship();
         ship.setNodeVariable("Ship");
         Relationship anchored = new Relationship("ANCHORED");
 
-        return cypher("MATCH", "o") + "\n"
-                + ship.cypherRelationshipTo("MATCH", "o", anchored, "") + "\n"
-                + "RETURN Ship.name, Ship.maxCapacity";
+        return cypherMatch("o").append("\n")
+                .append(ship.cypherRelationshipTo("MATCH", "o", anchored, "")).append("\n")
+                .append("RETURN Ship.name, Ship.maxCapacity")
+                .named("OilRig.cypherMatchShips");
     }
 
     /**
      * Create a cypher query that counts the number of small ships which anchor on this oil rig
-     * @return String which represents the cypher query
+     * @return CypherQuery which represents the cypher query
      */
-    public String cypherCountSmallShips() {
+    public CypherQuery cypherCountSmallShips() {
         Ship ship = new Ship();
         ship.setNodeVariable("s");
         Relationship anchored = new Relationship("ANCHORED");
 
-        String cypherQuery = cypher("MATCH", "o") + "\n"
-                + ship.cypherRelationshipTo("MATCH", "o", anchored, "") + "\n"
-                + "WHERE s.maxCapacity = 50 RETURN count(s) as count";
+        CypherQuery cypherQuery = cypherMatch("o").append("\n")
+                .append(ship.cypherRelationshipTo("MATCH", "o", anchored, "")).append("\n")
+                .append("WHERE s.maxCapacity = 50 RETURN count(s) as count");
 
-        return cypherQuery;
+        return cypherQuery.named("OilRig.cypherCountSmallShips");
     }
 
     /**
      * Create a cypher query that counts the number of big ships which anchor on this oil rig
-     * @return String which represents the cypher query
+     * @return CypherQuery which represents the cypher query
      */
-    public String cypherCountBigShips() {
+    public CypherQuery cypherCountBigShips() {
         Ship ship = new Ship();
         ship.setNodeVariable("s");
         Relationship anchored = new Relationship("ANCHORED");
 
-        String cypherQuery = cypher("MATCH", "o") + "\n"
-                + ship.cypherRelationshipTo("MATCH", "o", anchored, "") + "\n"
-                + "WHERE s.maxCapacity = 100 RETURN count(s) as count";
+        CypherQuery cypherQuery = cypherMatch("o").append("\n")
+                .append(ship.cypherRelationshipTo("MATCH", "o", anchored, "")).append("\n")
+                .append("WHERE s.maxCapacity = 100 RETURN count(s) as count");
 
-        return cypherQuery;
+        return cypherQuery.named("OilRig.cypherCountBigShips");
     }
 
     /**
      * Create a cypher query that creates and relates an all initial workers
-     * @return String which represents the cypher query
+     * @return CypherQuery which represents the cypher query
      */
-    public String cypherCreateWorkers() {
-        String cypherQuery = "";
+    public CypherQuery cypherCreateWorkers() {
+        CypherQuery cypherQuery = new CypherQuery();
         Relationship deployed = new Relationship("DEPLOYED");
 
-        for (int i = 0; i < initNumberWorkers; i++) {
-            String iToString = Integer.toString(i);
-            Worker worker = new Worker("worker" + iToString + getNodeVariable(), "mechanic");
-            cypherQuery += worker.cypher("CREATE", worker.getName());
-            cypherQuery += worker.cypherRelationshipTo("CREATE", getNodeVariable(), deployed, "");
+        for (int i = 0; i < getInitNumberWorkers(); i++) {
+            Worker worker = new Worker("worker" + i + getNodeVariable(), "mechanic");
+            worker.appendCypher(cypherQuery, "CREATE", worker.getName());
+            worker.appendRelationshipTo(cypherQuery, "CREATE", getNodeVariable(), deployed, "");
         }
 
-        return cypherQuery;
+        return cypherQuery.named("OilRig.cypherCreateWorkers");
     }
 
     /**
      * Create a cypher query that counts the number of workers who are deployed on this oil rig
-     * @return String which represents the cypher query
+     * @return CypherQuery which represents the cypher query
      */
-    public String cypherCountWorkers() {
+    public CypherQuery cypherCountWorkers() {
         Worker worker = new Worker();
         worker.setNodeVariable("w");
         Relationship deployed = new Relationship("DEPLOYED");
 
-        String cypherQuery = cypher("MATCH", "o") + "\n"
-                + worker.cypherRelationshipTo("MATCH", "o", deployed, "") + "\n"
-                + "RETURN count(w) as count";
+        CypherQuery cypherQuery = cypherMatch("o").append("\n")
+                .append(worker.cypherRelationshipTo("MATCH", "o", deployed, "")).append("\n")
+                .append("RETURN count(w) as count");
 
-        return cypherQuery;
+        return cypherQuery.named("OilRig.cypherCountWorkers");
+    }
+
+    /**
+     * Create a cypher query that loads the whole fleet in one result stream:
+     * one row per oil rig with its worker count, ship counts by size
+     * and a list of its anchored ships with their number of workers
+     * @return CypherQuery which represents the cypher query
+     */
+    public static CypherQuery cypherMatchFleet() {
+        return new CypherQuery("MATCH (o:OilRig)\n")
+                .named("OilRig.cypherMatchFleet")
+                .append("OPTIONAL MATCH (w)-[:DEPLOYED]->(o)\n")
+                .append("WITH o, count(w) AS numberWorkers\n")
+                .append("OPTIONAL MATCH (s)-[:ANCHORED]->(o)\n")
+                .append("OPTIONAL MATCH (sw)-[:DEPLOYED]->(s)\n")
+                .append("WITH o, numberWorkers, s, count(sw) AS shipWorkers\n")
+                .append("WITH o, numberWorkers, collect(CASE WHEN s IS NULL THEN NULL ")
+                .append("ELSE {name: s.name, maxCapacity: s.maxCapacity, numberWorkers: shipWorkers} END) AS ships\n")
+                .append("RETURN o.name AS name, o.initNumberWorkers AS initNumberWorkers, ")
+                .append("o.initNumberSmallShips AS initNumberSmallShips, o.initNumberBigShips AS initNumberBigShips, ")
+                .append("numberWorkers, ")
+                .append("size([ship IN ships WHERE ship.maxCapacity = 50]) AS numberSmallShips, ")
+                .append("size([ship IN ships WHERE ship.maxCapacity = 100]) AS numberBigShips, ")
+                .append("ships");
     }
 
     @Override
@@ -218,25 +244,20 @@ public class OilRig extends Node {
         return initNumberWorkers;
     }
 
-    public void setNumberWorkers(int numberWorkers) {
-        this.numberWorkers = numberWorkers;
-    }
-
     public Integer getNumberWorkers() {
         return numberWorkers;
     }
 
     public Integer getMinWorkers() {
-        return minWorkers;
+        return (int)(0.1 * getInitNumberWorkers());
     }
 
     public Integer getMaxWorkers() {
-        return maxWorkers;
+        return 2 * getInitNumberWorkers();
     }
 
-    public void setNumberSmallShips(int numberSmallShips) {
-        this.numberSmallShips = numberSmallShips;
-        this.numberShips = numberSmallShips + numberBigShips;
+    public Integer getInitNumberSmallShips() {
+        return initNumberSmallShips;
     }
 
     public Integer getNumberSmallShips() {
@@ -244,12 +265,11 @@ public class OilRig extends Node {
     }
 
     public Integer getMaxNumberSmallShips() {
-        return maxNumberSmallShips;
+        return 4 + getInitNumberSmallShips();
     }
 
-    public void setNumberBigShips(int numberBigShips) {
-        this.numberBigShips = numberBigShips;
-        this.numberShips = numberSmallShips + numberBigShips;
+    public Integer getInitNumberBigShips() {
+        return initNumberBigShips;
     }
 
     public Integer getNumberBigShips() {
@@ -257,18 +277,14 @@ public class OilRig extends Node {
     }
 
     public Integer getMaxNumberBigShips() {
-        return maxNumberBigShips;
-    }
-
-    public void setNumberShips(Integer numberShips) {
-        this.numberShips = numberShips;
+        return 4 + getInitNumberBigShips();
     }
 
     public Integer getNumberShips() {
-        return numberShips;
+        return getNumberSmallShips() + getNumberBigShips();
     }
 
     public Integer getMaxShips() {
-        return maxNumberSmallShips + maxNumberBigShips;
+        return getMaxNumberSmallShips() + getMaxNumberBigShips();
     }
 }
@@ -1,7 +1,7 @@
 package backend.entities;
 
 import java.util.HashMap;
-import java.util.Iterator;
+import java.util.Map;
 
 /** Represents relationship between two nodes
  * @author Louis Wendler
@@ -20,38 +20,43 @@ public class Relationship {
         attributes = new HashMap<>();
     }
 
-    public String getCypherString(String relationshipVariable) {
+    /**
+     * Create the cypher pattern of this relationship
+     * @param relationshipVariable Variable which refers to the relationship in the specific query
+     * @return CypherQuery whose attributes are bound as parameters
+     */
+    public CypherQuery getCypherQuery(String relationshipVariable) {
+        return appendCypher(new CypherQuery(), relationshipVariable);
+    }
+
+    /**
+     * Render the cypher pattern of this relationship at the end of a query
+     * @param cypherQuery The query the pattern is appended to
+     * @param relationshipVariable Variable which refers to the relationship in the specific query
+     * @return The given CypherQuery
+     */
+    public CypherQuery appendCypher(CypherQuery cypherQuery, String relationshipVariable) {
         this.relationshipVariable = relationshipVariable;
-        if (label.equals("") && getAttributeString().equals(""))
-            return String.format("[%s]", relationshipVariable);
+        cypherQuery.append("[").append(relationshipVariable);
+        if (label.equals("") && attributes.isEmpty())
+            return cypherQuery.append("]");
+
+        cypherQuery.append(":").append(label);
+        if (!attributes.isEmpty()) {
+            String separator = " {";
+            for (Map.Entry<String, Object> attribute : attributes.entrySet()) {
+                String parameter = "r" + relationshipVariable + "_" + attribute.getKey();
+                cypherQuery.append(separator).append(attribute.getKey()).append(":$").append(parameter)
+                        .parameter(parameter, attribute.getValue());
+                separator = ", ";
+            }
+            cypherQuery.append("}");
+        }
 
-        return String.format("[%s:%s%s]", relationshipVariable, label, getAttributeString());
+        return cypherQuery.append("]");
     }
 
     public void setAttributes(HashMap<String, Object> attributes) {
         this.attributes = attributes;
     }
-
-    private String getAttributeString() {
-        String attributeString = "";
-
-        if (attributes.isEmpty())
-            return attributeString;
-
-        for (Iterator<String> keys = attributes.keySet().iterator(); keys.hasNext();) {
-            String key = keys.next();
-
-            Object value = attributes.get(key);
-            String valueString = value.toString();
-            if (value instanceof String)
-                valueString = "\"" + valueString + "\"";
-
-            if (keys.hasNext())
-                attributeString += String.format("%s:%s, ", key, valueString);
-            else
-                attributeString += String.format("%s:%s", key, valueString);
-        }
-
-        return " {" + attributeString + "}";
-    }
 }
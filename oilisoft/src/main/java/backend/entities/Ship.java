@@ -10,8 +10,8 @@ import java.util.HashMap;
 public class Ship extends Node {
 
     private final String name;
-    private final Integer maxCapacity;
-    private Integer numberWorkers;
+    private final int maxCapacity;
+    private final int numberWorkers;
 
     /**
      * Create a Ship with name and capacity
@@ -19,22 +19,28 @@ public class Ship extends Node {
      * @param maxWorkers The maximum amount of workers the ship can transport (makes ship small/big)
      */
     public Ship(String name, int maxWorkers) {
+        this(name, maxWorkers, 0);
+    }
+
+    /**
+     * Create a Ship with the number of workers aboard, it never changes afterwards
+     * @param name The ship's unique name
+     * @param maxWorkers The maximum amount of workers the ship can transport (makes ship small/big)
+     * @param numberWorkers Number of workers who are aboard the ship
+     */
+    public Ship(String name, int maxWorkers, int numberWorkers) {
         super("Ship", NodeLabels.SHIP);
 
         this.name = name;
         this.maxCapacity = maxWorkers;
-
-        super.setAttributes(initAttributes());
+        this.numberWorkers = numberWorkers;
     }
 
     /**
      * Create a oil rig node as blueprint
      */
     public Ship() {
-        super("Ship", NodeLabels.SHIP);
-
-        this.name = null;
-        this.maxCapacity = null;
+        this(null, 0, 0);
     }
 
     /**
@@ -42,29 +48,29 @@ public class Ship extends Node {
      * @return The ship's attributes as HashMap
      */
     @Override
-    protected HashMap initAttributes() {
+    protected HashMap<String, Object> initAttributes() {
         HashMap<String, Object> attributes = new HashMap<>();
 
-        attributes.put("name", name);
-        attributes.put("maxCapacity", maxCapacity);
+        attributes.put("name", getName());
+        attributes.put("maxCapacity", getMaxWorkers());
 
         return attributes;
     }
 
     /**
      * Create a cypher query that counts the number of workers who are connected to this ship
-     * @return String which represents the cypher query
+     * @return CypherQuery which represents the cypher query
      */
-    public String cypherCountWorkers() {
+    public CypherQuery cypherCountWorkers() {
         Worker worker = new Worker();
         worker.setNodeVariable("w");
         Relationship transported = new Relationship("DEPLOYED");
 
-        String cypherQuery = cypher("MATCH", "s") + "\n"
-                + worker.cypherRelationshipTo("MATCH", "s", transported, "") + "\n"
-                + "RETURN count(w) as count";
+        CypherQuery cypherQuery = cypherMatch("s").append("\n")
+                .append(worker.cypherRelationshipTo("MATCH", "s", transported, "")).append("\n")
+                .append("RETURN count(w) as count");
 
-        return cypherQuery;
+        return cypherQuery.named("Ship.cypherCountWorkers");
     }
 
     @Override
@@ -76,10 +82,6 @@ public class Ship extends Node {
         return maxCapacity;
     }
 
-    public void setNumberWorkers(int numberWorkers) {
-        this.numberWorkers = numberWorkers;
-    }
-
     public Integer getNumberWorkers() {
         return numberWorkers;
     }
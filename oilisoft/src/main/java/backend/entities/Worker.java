@@ -15,25 +15,20 @@ public class Worker extends Node {
     /**
      * Creates a Worker with a name and a job
      * @param name The worker's unique name
-     * @param job The worker's job
+     * @param job The worker's job, it is interned as there are only a few distinct jobs
      */
     public Worker(String name, String job) {
         super("Worker", NodeLabels.WORKER);
 
         this.name = name;
-        this.job = job;
-
-        super.setAttributes(initAttributes());
+        this.job = job == null ? null : job.intern();
     }
 
     /**
      * Creates a worker node as a blueprint
      */
     public Worker() {
-        super("Worker", NodeLabels.WORKER);
-
-        this.name = null;
-        this.job = null;
+        this(null, null);
     }
 
     /**
@@ -41,11 +36,11 @@ public class Worker extends Node {
      * @return The worker's attributes as HashMap
      */
     @Override
-    protected HashMap initAttributes() {
+    protected HashMap<String, Object> initAttributes() {
         HashMap<String, Object> attributes = new HashMap<>();
 
-        attributes.put("name", name);
-        attributes.put("job", job);
+        attributes.put("name", getName());
+        attributes.put("job", getJob());
 
         return attributes;
     }
@@ -54,4 +49,8 @@ public class Worker extends Node {
     public String getName() {
         return name;
     }
+
+    public String getJob() {
+        return job;
+    }
 }
@@ -0,0 +1,57 @@
+package backend.fleet;
+
+import backend.entities.OilRig;
+import backend.entities.Ship;
+
+/** A single trip of an EvacuationPlan
+ * The ship picks up evacuees at the evacuated oil rig, deploys them at its destination
+ * and anchors there. Ships that stay at their oil rig only fetch evacuees.
+ * @author Louis Wendler
+ * @since 1.0
+ * @version 1.0
+ */
+public class EvacuationMove {
+
+    private final Ship ship;
+    private final OilRig from;
+    private final OilRig to;
+    private final int workers;
+
+    /**
+     * Create an EvacuationMove
+     * @param ship The ship that makes the trip
+     * @param from The oil rig the ship anchors at before the trip
+     * @param to The oil rig the ship anchors at after the trip, the evacuees are deployed there
+     * @param workers Number of evacuees the ship carries
+     */
+    public EvacuationMove(Ship ship, OilRig from, OilRig to, int workers) {
+        this.ship = ship;
+        this.from = from;
+        this.to = to;
+        this.workers = workers;
+    }
+
+    /**
+     * Determine if the ship anchors at another oil rig after the trip
+     * @return True if the ship has to be redeployed
+     */
+    public boolean isShipMoved() {
+        return !from.equals(to);
+    }
+
+    public Ship getShip() {
+        return ship;
+    }
+
+    public OilRig getFrom() {
+        return from;
+    }
+
+    public OilRig getTo() {
+        return to;
+    }
+
+    public int getWorkers() {
+        return workers;
+    }
+}
@@ -0,0 +1,78 @@
+package backend.fleet;
+
+import backend.entities.OilRig;
+import backend.entities.Ship;
+
+import java.util.ArrayList;
+
+/** The moves that evacuate an oil rig, computed by the EvacuationPlanner
+ * Workers and ships that could not be placed anywhere are reported as stranded.
+ * @author Louis Wendler
+ * @since 1.0
+ * @version 1.0
+ */
+public class EvacuationPlan {
+
+    private final OilRig oilRig;
+    private final ArrayList<EvacuationMove> moves;
+    private final ArrayList<Ship> strandedShips;
+    private int strandedWorkers;
+
+    /**
+     * Create an empty EvacuationPlan
+     * @param oilRig The oil rig that shall be evacuated
+     */
+    public EvacuationPlan(OilRig oilRig) {
+        this.oilRig = oilRig;
+        moves = new ArrayList<>();
+        strandedShips = new ArrayList<>();
+    }
+
+    void addMove(EvacuationMove move) {
+        moves.add(move);
+    }
+
+    void addStrandedShip(Ship ship) {
+        strandedShips.add(ship);
+    }
+
+    void setStrandedWorkers(int strandedWorkers) {
+        this.strandedWorkers = strandedWorkers;
+    }
+
+    /**
+     * Get the number of workers the moves carry away
+     * @return Number of evacuees
+     */
+    public int getEvacuatedWorkers() {
+        int workers = 0;
+        for (EvacuationMove move : moves) {
+            workers += move.getWorkers();
+        }
+        return workers;
+    }
+
+    /**
+     * Determine if the oil rig is left without workers and ships
+     * @return True if nothing is stranded
+     */
+    public boolean isComplete() {
+        return strandedWorkers == 0 && strandedShips.isEmpty();
+    }
+
+    public OilRig getOilRig() {
+        return oilRig;
+    }
+
+    public ArrayList<EvacuationMove> getMoves() {
+        return moves;
+    }
+
+    public ArrayList<Ship> getStrandedShips() {
+        return strandedShips;
+    }
+
+    public int getStrandedWorkers() {
+        return strandedWorkers;
+    }
+}
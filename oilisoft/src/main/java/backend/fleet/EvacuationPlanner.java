@@ -0,0 +1,207 @@
+package backend.fleet;
+
+import backend.entities.OilRig;
+import backend.entities.Ship;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/** Plans the evacuation of an oil rig on the in-memory Fleet, before anything is written to the database
+ * The evacuees are packed into the spare capacity of ships (maximum minus the workers aboard),
+ * each ship makes one trip and the evacuees are deployed at its destination oil rig,
+ * which must not exceed its maximum number of workers.
+ * All ships of the evacuated oil rig leave it and need a free small/big ship slot at their destination.
+ * If their capacity is not enough, ships of other oil rigs fetch evacuees and bring them to their own oil rig.
+ * The ships are packed largest first and every destination is chosen by best fit,
+ * which keeps the number of trips minimal as long as the destinations don't run out of capacity.
+ * @author Louis Wendler
+ * @since 1.0
+ * @version 1.0
+ */
+public class EvacuationPlanner {
+
+    private static final int SMALL_SHIP_CAPACITY = 50;
+
+    /**
+     * What an oil rig can still take in while the plan is computed
+     */
+    private static class Capacity {
+        private int workers;
+        private int smallShips;
+        private int bigShips;
+
+        private Capacity(OilRig oilRig) {
+            workers = Math.max(0, oilRig.getMaxWorkers() - oilRig.getNumberWorkers());
+            smallShips = Math.max(0, oilRig.getMaxNumberSmallShips() - oilRig.getNumberSmallShips());
+            bigShips = Math.max(0, oilRig.getMaxNumberBigShips() - oilRig.getNumberBigShips());
+        }
+
+        private boolean hasSlot(Ship ship) {
+            return isSmall(ship) ? smallShips > 0 : bigShips > 0;
+        }
+
+        private void takeSlot(Ship ship) {
+            if (isSmall(ship))
+                smallShips--;
+            else
+                bigShips--;
+        }
+    }
+
+    private final Fleet fleet;
+
+    /**
+     * Create an EvacuationPlanner
+     * @param fleet The fleet with the current numbers of workers and ships
+     */
+    public EvacuationPlanner(Fleet fleet) {
+        this.fleet = fleet;
+    }
+
+    /**
+     * Plan the evacuation of all workers and ships of an oil rig
+     * The fleet is not changed
+     * @param oilRig The oil rig that shall be evacuated
+     * @return The EvacuationPlan
+     */
+    public EvacuationPlan plan(OilRig oilRig) {
+        return plan(Collections.singletonList(oilRig)).get(0);
+    }
+
+    /**
+     * Plan the simultaneous evacuation of several oil rigs, they share the capacity of the remaining fleet
+     * The fleet is not changed, so plans can be computed by several threads at once
+     * @param oilRigs The oil rigs that shall be evacuated
+     * @return An EvacuationPlan for every oil rig, in the same order
+     */
+    public ArrayList<EvacuationPlan> plan(List<OilRig> oilRigs) {
+        HashSet<OilRig> evacuated = new HashSet<>(oilRigs);
+        LinkedHashMap<OilRig, Capacity> capacities = new LinkedHashMap<>();
+        for (OilRig destination : fleet.getOilRigs()) {
+            if (!evacuated.contains(destination))
+                capacities.put(destination, new Capacity(destination));
+        }
+
+        ArrayList<EvacuationPlan> plans = new ArrayList<>();
+        int[] remaining = new int[oilRigs.size()];
+        int totalRemaining = 0;
+        for (int i = 0; i < oilRigs.size(); i++) {
+            OilRig oilRig = oilRigs.get(i);
+            EvacuationPlan plan = new EvacuationPlan(oilRig);
+            remaining[i] = planOwnShips(plan, oilRig, capacities, Math.max(0, oilRig.getNumberWorkers()));
+            totalRemaining += remaining[i];
+            plans.add(plan);
+        }
+        if (totalRemaining == 0)
+            return plans;
+
+        // Ships of the remaining fleet that can fetch evacuees, each one makes a single trip
+        ArrayList<Ship> ships = new ArrayList<>();
+        ArrayList<OilRig> homes = new ArrayList<>();
+        for (OilRig home : capacities.keySet()) {
+            for (Ship ship : fleet.getShips(home)) {
+                if (spareCapacity(ship) > 0) {
+                    ships.add(ship);
+                    homes.add(home);
+                }
+            }
+        }
+
+        for (int i = 0; i < oilRigs.size(); i++) {
+            EvacuationPlan plan = plans.get(i);
+            plan.setStrandedWorkers(planFetchingShips(plan, ships, homes, capacities, remaining[i]));
+        }
+
+        return plans;
+    }
+
+    /**
+     * Send every ship of the evacuated oil rig to the destination it can unload the most evacuees at
+     * @return Number of evacuees that are left
+     */
+    private int planOwnShips(EvacuationPlan plan, OilRig oilRig, LinkedHashMap<OilRig, Capacity> capacities, int remaining) {
+        ArrayList<Ship> ships = new ArrayList<>(fleet.getShips(oilRig));
+        ships.sort(Comparator.comparingInt(EvacuationPlanner::spareCapacity).reversed());
+
+        for (Ship ship : ships) {
+            OilRig bestDestination = null;
+            int bestLoad = -1;
+            int bestLeftover = Integer.MAX_VALUE;
+
+            for (Map.Entry<OilRig, Capacity> entry : capacities.entrySet()) {
+                Capacity capacity = entry.getValue();
+                if (!capacity.hasSlot(ship))
+                    continue;
+
+                int load = Math.min(Math.min(spareCapacity(ship), capacity.workers), remaining);
+                int leftover = capacity.workers - load;
+                if (load > bestLoad || (load == bestLoad && leftover < bestLeftover)) {
+                    bestDestination = entry.getKey();
+                    bestLoad = load;
+                    bestLeftover = leftover;
+                }
+            }
+
+            if (bestDestination == null) {
+                plan.addStrandedShip(ship);
+                continue;
+            }
+
+            Capacity capacity = capacities.get(bestDestination);
+            capacity.takeSlot(ship);
+            capacity.workers -= bestLoad;
+            remaining -= bestLoad;
+            plan.addMove(new EvacuationMove(ship, oilRig, bestDestination, bestLoad));
+        }
+
+        return remaining;
+    }
+
+    /**
+     * Let ships of other oil rigs fetch the evacuees that are left, the ship that takes the most goes first
+     * @param ships Ships that can still fetch evacuees, a ship is set to null once it has been sent
+     * @param homes The oil rigs of these ships
+     * @return Number of evacuees that are left
+     */
+    private int planFetchingShips(EvacuationPlan plan, ArrayList<Ship> ships, ArrayList<OilRig> homes,
+                                  LinkedHashMap<OilRig, Capacity> capacities, int remaining) {
+        while (remaining > 0) {
+            int best = -1;
+            int bestLoad = 0;
+            for (int i = 0; i < ships.size(); i++) {
+                if (ships.get(i) == null)
+                    continue;
+
+                int load = Math.min(Math.min(spareCapacity(ships.get(i)), capacities.get(homes.get(i)).workers), remaining);
+                if (load > bestLoad) {
+                    best = i;
+                    bestLoad = load;
+                }
+            }
+            if (best < 0)
+                break;
+
+            OilRig home = homes.get(best);
+            capacities.get(home).workers -= bestLoad;
+            remaining -= bestLoad;
+            plan.addMove(new EvacuationMove(ships.get(best), home, home, bestLoad));
+            ships.set(best, null);
+        }
+
+        return remaining;
+    }
+
+    private static int spareCapacity(Ship ship) {
+        Integer numberWorkers = ship.getNumberWorkers();
+        return Math.max(0, ship.getMaxWorkers() - (numberWorkers == null ? 0 : numberWorkers));
+    }
+
+    private static boolean isSmall(Ship ship) {
+        return ship.getMaxWorkers() == SMALL_SHIP_CAPACITY;
+    }
+}
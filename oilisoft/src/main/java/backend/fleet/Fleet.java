@@ -0,0 +1,435 @@
+package backend.fleet;
+
+import backend.entities.Node;
+import backend.entities.NodeLabels;
+import backend.entities.OilRig;
+import backend.entities.Ship;
+import backend.entities.Worker;
+import org.neo4j.driver.Record;
+import org.neo4j.driver.Value;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+/** Immutable, versioned snapshot of all oil rigs, their anchored ships and known workers
+ * The nodes are stored in columns of primitive arrays (see OilRigColumns, ShipColumns, WorkerColumns)
+ * and handed out as flyweight views that implement the entity API, so a large fleet fits in a small heap.
+ * Every ship refers to the oil rig it anchors at and every worker to the node (ship/oil rig) it is deployed at
+ * by index, the ships of every oil rig are grouped in one more index array,
+ * so every membership query is a name lookup followed by array accesses.
+ * A snapshot never changes, withWorkersDeployed() returns a changed snapshot that shares
+ * all columns it doesn't change with this one. The version of a snapshot is the one of the read it has been
+ * loaded by (see FleetStore.nextVersion()), a changed snapshot keeps the version it is derived from.
+ * Snapshots can therefore be read by any thread without locking, see FleetStore.
+ * @author Louis Wendler
+ * @since 1.0
+ * @version 1.0
+ */
+public final class Fleet {
+
+    private static final int NONE = -1;
+    private static final int NO_HOLDER = Integer.MIN_VALUE;
+
+    private final long version;
+    private final OilRigColumns oilRigs;
+    private final ShipColumns ships;
+    private final int[] anchors;        // Oil rig index of every ship, NONE if it doesn't anchor
+    private final int[] firstShips;     // Start of every oil rig's ships in shipsByOilRig
+    private final int[] shipsByOilRig;  // Ship indexes grouped by oil rig
+    private final WorkerColumns workers;
+    private final int[] holders;        // Ship index or ~oil rig index of every worker
+
+    /**
+     * Create an empty Fleet of version 0, every loaded Fleet may replace it
+     */
+    public Fleet() {
+        this(0, new OilRigColumns(), new ShipColumns(), new int[0], new WorkerColumns(), new int[0]);
+    }
+
+    /**
+     * Create a Fleet from columns that are not changed afterwards
+     * @param version The version
+     * @param oilRigs The oil rigs
+     * @param ships The ships
+     * @param anchors Oil rig index of every ship
+     * @param workers The workers
+     * @param holders Holder of every worker
+     */
+    private Fleet(long version, OilRigColumns oilRigs, ShipColumns ships, int[] anchors, WorkerColumns workers, int[] holders) {
+        this.version = version;
+        this.oilRigs = oilRigs;
+        this.ships = ships;
+        this.anchors = anchors;
+        this.workers = workers;
+        this.holders = holders;
+
+        // Group the ships by oil rig with a counting sort, in the order they were added
+        firstShips = new int[oilRigs.size() + 1];
+        for (int anchor : anchors) {
+            if (anchor != NONE)
+                firstShips[anchor + 1]++;
+        }
+        for (int i = 0; i < oilRigs.size(); i++) {
+            firstShips[i + 1] += firstShips[i];
+        }
+        shipsByOilRig = new int[firstShips[oilRigs.size()]];
+        int[] next = Arrays.copyOf(firstShips, oilRigs.size());
+        for (int ship = 0; ship < anchors.length; ship++) {
+            if (anchors[ship] != NONE)
+                shipsByOilRig[next[anchors[ship]]++] = ship;
+        }
+    }
+
+    /**
+     * Create a changed snapshot of the same version with other holders and worker counts,
+     * the grouping of the ships is shared
+     */
+    private Fleet(Fleet other, OilRigColumns oilRigs, ShipColumns ships, WorkerColumns workers, int[] holders) {
+        this.version = other.version;
+        this.oilRigs = oilRigs;
+        this.ships = ships;
+        this.anchors = other.anchors;
+        this.firstShips = other.firstShips;
+        this.shipsByOilRig = other.shipsByOilRig;
+        this.workers = workers;
+        this.holders = holders;
+    }
+
+    /**
+     * Create a Fleet of version 0 from the rows of the fleet query, for fleets that are not published in a FleetStore
+     * @param records Rows of OilRig.cypherMatchFleet()
+     * @return The oil rigs with their stats and the ships that anchor on them
+     */
+    public static Fleet fromRecords(List<Record> records) {
+        return fromRecords(records, 0);
+    }
+
+    /**
+     * Create a Fleet from the rows of the fleet query
+     * @param records Rows of OilRig.cypherMatchFleet()
+     * @param version Version of the read that returned the rows, taken before it was issued
+     * @return The oil rigs with their stats and the ships that anchor on them
+     */
+    public static Fleet fromRecords(List<Record> records, long version) {
+        Builder builder = new Builder(version);
+        for (Record oilRigRecord : records) {
+            builder.addOilRig(oilRigRecord);
+        }
+        return builder.build();
+    }
+
+    /**
+     * Create a changed snapshot in which workers are registered as deployed at a node
+     * Workers that are registered at another node are moved, the worker counts of both nodes are changed.
+     * Unknown workers are expected to be counted at the node already (e.g. they have just been loaded from it).
+     * @param workers The workers
+     * @param holder The ship or oil rig the workers are deployed at
+     * @return The changed snapshot, or this one if the holder is not part of this snapshot
+     *         (e.g. it has been removed by a newer load)
+     */
+    public Fleet withWorkersDeployed(Collection<Worker> workers, Node holder) {
+        int encodedHolder = encodeHolder(holder);
+        if (encodedHolder == NO_HOLDER)
+            return this;
+
+        WorkerColumns changedWorkers = this.workers;
+        for (Worker worker : workers) {
+            if (changedWorkers.indexOf(worker) >= 0)
+                continue;
+            if (changedWorkers == this.workers)
+                changedWorkers = new WorkerColumns(this.workers);
+            changedWorkers.add(worker);
+        }
+
+        OilRigColumns changedOilRigs = oilRigs;
+        ShipColumns changedShips = ships;
+        int[] changedHolders = Arrays.copyOf(holders, changedWorkers.size());
+        for (Worker worker : workers) {
+            int index = changedWorkers.indexOf(worker);
+            int previousHolder = index < holders.length ? changedHolders[index] : encodedHolder;
+            changedHolders[index] = encodedHolder;
+            if (previousHolder == encodedHolder)
+                continue;
+
+            // Copy the counts on the first move, the copies keep the indexes of the original columns
+            if (changedOilRigs == oilRigs) {
+                changedOilRigs = new OilRigColumns(oilRigs);
+                changedShips = new ShipColumns(ships);
+            }
+            countWorker(changedOilRigs, changedShips, previousHolder, -1);
+            countWorker(changedOilRigs, changedShips, encodedHolder, 1);
+        }
+        return new Fleet(this, changedOilRigs, changedShips, changedWorkers, changedHolders);
+    }
+
+    private static void countWorker(OilRigColumns oilRigs, ShipColumns ships, int encodedHolder, int delta) {
+        if (encodedHolder >= 0)
+            ships.addWorkers(encodedHolder, delta);
+        else
+            oilRigs.addWorkers(~encodedHolder, delta);
+    }
+
+    /**
+     * Refer to a ship by its index and to an oil rig by its complemented index
+     * @return The encoded holder or NO_HOLDER if it is unknown
+     */
+    private int encodeHolder(Node holder) {
+        if (holder.getNodeLabel() == NodeLabels.SHIP) {
+            int index = ships.indexOf((Ship) holder);
+            return index < 0 ? NO_HOLDER : index;
+        }
+        if (holder.getNodeLabel() == NodeLabels.OIL_RIG) {
+            int index = oilRigs.indexOf((OilRig) holder);
+            return index < 0 ? NO_HOLDER : ~index;
+        }
+        return NO_HOLDER;
+    }
+
+    /**
+     * Get the version of this snapshot, snapshots loaded by later reads have higher versions
+     * @return The version
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * Get all oil rigs in the order they were added
+     * @return Unmodifiable list of views
+     */
+    public List<OilRig> getOilRigs() {
+        return new AbstractList<OilRig>() {
+            @Override
+            public OilRig get(int index) {
+                return oilRigs.get(index);
+            }
+
+            @Override
+            public int size() {
+                return oilRigs.size();
+            }
+        };
+    }
+
+    /**
+     * Get the ships that anchor at an oil rig
+     * @param oilRig The oil rig
+     * @return Unmodifiable list of views, empty if the oil rig is unknown
+     */
+    public List<Ship> getShips(OilRig oilRig) {
+        int index = oilRigs.indexOf(oilRig);
+        if (index < 0)
+            return Collections.emptyList();
+
+        int first = firstShips[index];
+        int size = firstShips[index + 1] - first;
+        return new AbstractList<Ship>() {
+            @Override
+            public Ship get(int i) {
+                if (i < 0 || i >= size)
+                    throw new IndexOutOfBoundsException("Index: " + i + ", Size: " + size);
+                return ships.get(shipsByOilRig[first + i]);
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+        };
+    }
+
+    /**
+     * Get the oil rig a ship anchors at
+     * @param ship The ship
+     * @return The oil rig or null if the ship is unknown
+     */
+    public OilRig getOilRig(Ship ship) {
+        int anchor = anchorOf(ship);
+        return anchor == NONE ? null : oilRigs.get(anchor);
+    }
+
+    /**
+     * Get the node a worker is deployed at
+     * @param worker The worker
+     * @return The ship/oil rig or null if the worker is unknown
+     */
+    public Node getHolder(Worker worker) {
+        int index = workers.indexOf(worker);
+        if (index < 0)
+            return null;
+
+        int holder = holders[index];
+        return holder >= 0 ? ships.get(holder) : oilRigs.get(~holder);
+    }
+
+    /**
+     * Determine if a ship anchors at an oil rig
+     * @param ship The ship
+     * @param oilRig The oil rig
+     * @return True if the ship anchors at the oil rig
+     */
+    public boolean anchorsAt(Ship ship, OilRig oilRig) {
+        int anchor = anchorOf(ship);
+        return anchor != NONE && anchor == oilRigs.indexOf(oilRig);
+    }
+
+    /**
+     * Determine if two ships anchor at the same oil rig
+     * @param ship A ship
+     * @param other Another ship
+     * @return True if both ships anchor at the same oil rig
+     */
+    public boolean anchorAtSameOilRig(Ship ship, Ship other) {
+        int anchor = anchorOf(ship);
+        return anchor != NONE && anchor == anchorOf(other);
+    }
+
+    /**
+     * Determine if a ship is part of the fleet
+     * @param ship The ship
+     * @return True if the ship anchors at any oil rig
+     */
+    public boolean contains(Ship ship) {
+        return anchorOf(ship) != NONE;
+    }
+
+    private int anchorOf(Ship ship) {
+        int index = ships.indexOf(ship);
+        return index < 0 ? NONE : anchors[index];
+    }
+
+    public int size() {
+        return oilRigs.size();
+    }
+
+    /**
+     * Collects a whole fleet before it is published as one Fleet snapshot
+     * A Builder is meant for a single thread and must not be used after build()
+     */
+    public static class Builder {
+
+        private final long version;
+        private final OilRigColumns oilRigs;
+        private final ShipColumns ships;
+        private int[] anchors;
+        private final WorkerColumns workers;
+        private int[] holders;
+
+        /**
+         * Create an empty Builder for a Fleet of version 0, for fleets that are not published in a FleetStore
+         */
+        public Builder() {
+            this(0);
+        }
+
+        /**
+         * Create an empty Builder
+         * @param version Version of the Fleet, taken before the read of its content was issued
+         */
+        public Builder(long version) {
+            this.version = version;
+            oilRigs = new OilRigColumns();
+            ships = new ShipColumns();
+            anchors = new int[0];
+            workers = new WorkerColumns();
+            holders = new int[0];
+        }
+
+        /**
+         * Add an oil rig and its anchored ships from a row of the fleet query
+         * @param oilRigRecord Row of OilRig.cypherMatchFleet()
+         * @return This Builder
+         */
+        private Builder addOilRig(Record oilRigRecord) {
+            // Create corresponding oil rig nodes
+            OilRig oilRig = new OilRig(
+                    oilRigRecord.get("name").asString(),
+                    oilRigRecord.get("initNumberWorkers").asInt(),
+                    oilRigRecord.get("initNumberSmallShips").asInt(),
+                    oilRigRecord.get("initNumberBigShips").asInt(),
+                    oilRigRecord.get("numberWorkers").asInt(),
+                    oilRigRecord.get("numberSmallShips").asInt(),
+                    oilRigRecord.get("numberBigShips").asInt()
+            );
+            addOilRig(oilRig);
+
+            // Create the ships that anchor on the oil rig
+            for (Value shipValue : oilRigRecord.get("ships").values()) {
+                Ship ship = new Ship(
+                        shipValue.get("name").asString(),
+                        shipValue.get("maxCapacity").asInt(),
+                        shipValue.get("numberWorkers").asInt()
+                );
+                anchorShip(ship, oilRig);
+            }
+            return this;
+        }
+
+        /**
+         * Add an oil rig without ships
+         * @param oilRig The oil rig
+         * @return This Builder
+         */
+        public Builder addOilRig(OilRig oilRig) {
+            oilRigs.add(oilRig);
+            return this;
+        }
+
+        /**
+         * Anchor a ship at an oil rig, a ship that anchors elsewhere is moved
+         * @param ship The ship
+         * @param oilRig The oil rig (added to the fleet if unknown)
+         * @return This Builder
+         */
+        public Builder anchorShip(Ship ship, OilRig oilRig) {
+            int anchor = oilRigs.add(oilRig);
+            int index = ships.add(ship);
+            if (index == anchors.length)
+                anchors = Arrays.copyOf(anchors, Math.max(4, index * 2));
+            anchors[index] = anchor;
+            return this;
+        }
+
+        /**
+         * Register a worker as deployed at a node
+         * @param worker The worker
+         * @param holder The ship or oil rig the worker is deployed at, oil rigs are added if unknown
+         * @return This Builder
+         * @throws IllegalArgumentException If the holder is a ship that doesn't anchor at an oil rig yet
+         */
+        public Builder deployWorker(Worker worker, Node holder) {
+            int encodedHolder;
+            if (holder.getNodeLabel() == NodeLabels.OIL_RIG) {
+                encodedHolder = ~oilRigs.add((OilRig) holder);
+            } else {
+                encodedHolder = holder.getNodeLabel() == NodeLabels.SHIP ? ships.indexOf((Ship) holder) : -1;
+                if (encodedHolder < 0)
+                    throw new IllegalArgumentException("Workers can only be deployed at a ship that anchors at an oil rig: " + holder.getName());
+            }
+
+            int index = workers.add(worker);
+            if (index == holders.length)
+                holders = Arrays.copyOf(holders, Math.max(4, index * 2));
+            holders[index] = encodedHolder;
+            return this;
+        }
+
+        /**
+         * Create the Fleet snapshot
+         * @return The Fleet with the version of this Builder
+         */
+        public Fleet build() {
+            return new Fleet(
+                    version,
+                    oilRigs,
+                    ships,
+                    Arrays.copyOf(anchors, ships.size()),
+                    workers,
+                    Arrays.copyOf(holders, workers.size())
+            );
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package backend.fleet;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.UnaryOperator;
+
+/** Holds the current Fleet snapshot and swaps it atomically
+ * Readers take one snapshot with get() and work on it without locking,
+ * writers publish newer snapshots. Every read of the fleet takes a version with nextVersion() before it is issued,
+ * a snapshot whose read was issued before the one of the current snapshot is never published,
+ * so a slow reload can't overwrite the result of a later one. Snapshots changed by update() keep their version,
+ * so local changes never make a later reload be rejected.
+ * @author Louis Wendler
+ * @since 1.0
+ * @version 1.0
+ */
+public class FleetStore {
+
+    private final AtomicReference<Fleet> current;
+    private final AtomicLong versions;
+
+    /**
+     * Create a FleetStore
+     * @param fleet The initial snapshot
+     */
+    public FleetStore(Fleet fleet) {
+        current = new AtomicReference<>(fleet);
+        versions = new AtomicLong(fleet.getVersion());
+    }
+
+    /**
+     * Take the version of a read of the fleet, must be called before the read is issued
+     * @return A version higher than the ones of all reads taken before
+     */
+    public long nextVersion() {
+        return versions.incrementAndGet();
+    }
+
+    /**
+     * Get the current snapshot
+     * @return The Fleet, it never changes
+     */
+    public Fleet get() {
+        return current.get();
+    }
+
+    /**
+     * Replace the current snapshot, unless it has been loaded by a read that was issued after the one of fleet
+     * @param fleet The snapshot that shall be published
+     * @return True if fleet is the current snapshot afterwards
+     */
+    public boolean publish(Fleet fleet) {
+        while (true) {
+            Fleet snapshot = current.get();
+            if (snapshot == fleet)
+                return true;
+            if (snapshot.getVersion() > fleet.getVersion())
+                return false;
+            if (current.compareAndSet(snapshot, fleet))
+                return true;
+        }
+    }
+
+    /**
+     * Derive a new snapshot from the current one and publish it
+     * The change is applied again if another snapshot was published meanwhile, so it must not have side effects
+     * @param change Creates the new snapshot, e.g. by fleet.withWorkersDeployed()
+     * @return The published snapshot
+     */
+    public Fleet update(UnaryOperator<Fleet> change) {
+        while (true) {
+            Fleet snapshot = current.get();
+            Fleet changed = change.apply(snapshot);
+            if (current.compareAndSet(snapshot, changed))
+                return changed;
+        }
+    }
+}
@@ -0,0 +1,144 @@
+package backend.fleet;
+
+import java.util.Arrays;
+
+/** Append-only dictionary that numbers names 0, 1, 2, ... in the order they are added
+ * The characters of all names are packed into one char array and looked up by an open-addressing
+ * table of indexes, so a name costs a few bytes besides its characters instead of a String and a map entry.
+ * A dictionary is only changed while it is built, snapshots that share it must not add names anymore.
+ * @author Louis Wendler
+ * @since 1.0
+ * @version 1.0
+ */
+final class NameDictionary {
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    private char[] chars;
+    private int length;
+    private int[] offsets;
+    private int[] hashes;
+    private int size;
+    private int[] table;
+
+    /**
+     * Create an empty NameDictionary
+     */
+    NameDictionary() {
+        chars = new char[INITIAL_CAPACITY * 8];
+        offsets = new int[INITIAL_CAPACITY + 1];
+        hashes = new int[INITIAL_CAPACITY];
+        table = new int[INITIAL_CAPACITY * 2];
+    }
+
+    /**
+     * Copy a NameDictionary, names can be added to the copy without changing the original
+     * @param other The NameDictionary that is copied
+     */
+    NameDictionary(NameDictionary other) {
+        chars = Arrays.copyOf(other.chars, Math.max(other.length, 1));
+        length = other.length;
+        offsets = other.offsets.clone();
+        hashes = other.hashes.clone();
+        size = other.size;
+        table = other.table.clone();
+    }
+
+    /**
+     * Add a name unless it is known
+     * @param name The name
+     * @return Index of the name
+     */
+    int add(String name) {
+        int index = indexOf(name);
+        if (index >= 0)
+            return index;
+
+        if (size == hashes.length) {
+            hashes = Arrays.copyOf(hashes, size * 2);
+            offsets = Arrays.copyOf(offsets, size * 2 + 1);
+        }
+        if (length + name.length() > chars.length)
+            chars = Arrays.copyOf(chars, Math.max(chars.length * 2, length + name.length()));
+
+        name.getChars(0, name.length(), chars, length);
+        length += name.length();
+        offsets[size + 1] = length;
+        hashes[size] = name.hashCode();
+        index = size++;
+
+        if (size * 2 > table.length)
+            rehash(table.length * 2);
+        else
+            insert(index);
+        return index;
+    }
+
+    /**
+     * Look up the index of a name
+     * @param name The name
+     * @return Index of the name or -1 if it is unknown
+     */
+    int indexOf(String name) {
+        if (name == null)
+            return -1;
+
+        int hash = name.hashCode();
+        int mask = table.length - 1;
+        for (int slot = mix(hash) & mask; table[slot] != 0; slot = (slot + 1) & mask) {
+            int index = table[slot] - 1;
+            if (hashes[index] == hash && matches(index, name))
+                return index;
+        }
+        return -1;
+    }
+
+    /**
+     * Get a name, the String is created on every call
+     * @param index Index of the name
+     * @return The name
+     */
+    String get(int index) {
+        return new String(chars, offsets[index], offsets[index + 1] - offsets[index]);
+    }
+
+    int size() {
+        return size;
+    }
+
+    private boolean matches(int index, String name) {
+        int start = offsets[index];
+        if (offsets[index + 1] - start != name.length())
+            return false;
+
+        for (int i = 0; i < name.length(); i++) {
+            if (chars[start + i] != name.charAt(i))
+                return false;
+        }
+        return true;
+    }
+
+    private void rehash(int capacity) {
+        table = new int[capacity];
+        for (int index = 0; index < size; index++) {
+            insert(index);
+        }
+    }
+
+    private void insert(int index) {
+        int mask = table.length - 1;
+        int slot = mix(hashes[index]) & mask;
+        while (table[slot] != 0) {
+            slot = (slot + 1) & mask;
+        }
+        table[slot] = index + 1;
+    }
+
+    /**
+     * Spread the bits of a String hash, similar names differ only in their last characters
+     */
+    private static int mix(int hash) {
+        hash *= 0x9E3779B9;
+        return hash ^ (hash >>> 16);
+    }
+}
@@ -0,0 +1,178 @@
+package backend.fleet;
+
+import backend.entities.OilRig;
+
+import java.util.Arrays;
+
+/** Columnar store of oil rigs, one int array per stat and a NameDictionary for the names
+ * The oil rigs are handed out as flyweight views that read the columns, every view is created on first access
+ * and kept, so repeated lookups and lists of oil rigs share one view per oil rig.
+ * A store is only changed while it is built, Fleet snapshots copy it before they change worker counts.
+ * @author Louis Wendler
+ * @since 1.0
+ * @version 1.0
+ */
+final class OilRigColumns {
+
+    private final NameDictionary names;
+    private int[] initNumberWorkers;
+    private int[] numberWorkers;
+    private int[] initNumberSmallShips;
+    private int[] numberSmallShips;
+    private int[] initNumberBigShips;
+    private int[] numberBigShips;
+    private View[] views;  // Views handed out so far, created on first access
+
+    /**
+     * Create an empty OilRigColumns
+     */
+    OilRigColumns() {
+        names = new NameDictionary();
+        initNumberWorkers = new int[0];
+        numberWorkers = new int[0];
+        initNumberSmallShips = new int[0];
+        numberSmallShips = new int[0];
+        initNumberBigShips = new int[0];
+        numberBigShips = new int[0];
+    }
+
+    /**
+     * Copy an OilRigColumns, oil rigs can be added to the copy without changing the original
+     * @param other The OilRigColumns that is copied
+     */
+    OilRigColumns(OilRigColumns other) {
+        names = new NameDictionary(other.names);
+        initNumberWorkers = other.initNumberWorkers.clone();
+        numberWorkers = other.numberWorkers.clone();
+        initNumberSmallShips = other.initNumberSmallShips.clone();
+        numberSmallShips = other.numberSmallShips.clone();
+        initNumberBigShips = other.initNumberBigShips.clone();
+        numberBigShips = other.numberBigShips.clone();
+    }
+
+    /**
+     * Add an oil rig unless an oil rig with its name is known, the stats of a known oil rig are kept
+     * @param oilRig The oil rig
+     * @return Index of the oil rig
+     */
+    int add(OilRig oilRig) {
+        int index = indexOf(oilRig);
+        if (index >= 0)
+            return index;
+
+        index = names.add(oilRig.getName());
+        if (index == numberWorkers.length) {
+            int capacity = Math.max(4, index * 2);
+            initNumberWorkers = Arrays.copyOf(initNumberWorkers, capacity);
+            numberWorkers = Arrays.copyOf(numberWorkers, capacity);
+            initNumberSmallShips = Arrays.copyOf(initNumberSmallShips, capacity);
+            numberSmallShips = Arrays.copyOf(numberSmallShips, capacity);
+            initNumberBigShips = Arrays.copyOf(initNumberBigShips, capacity);
+            numberBigShips = Arrays.copyOf(numberBigShips, capacity);
+        }
+        initNumberWorkers[index] = oilRig.getInitNumberWorkers();
+        numberWorkers[index] = oilRig.getNumberWorkers();
+        initNumberSmallShips[index] = oilRig.getInitNumberSmallShips();
+        numberSmallShips[index] = oilRig.getNumberSmallShips();
+        initNumberBigShips[index] = oilRig.getInitNumberBigShips();
+        numberBigShips[index] = oilRig.getNumberBigShips();
+        return index;
+    }
+
+    /**
+     * Change the number of workers deployed at a node, only a copy that no snapshot uses yet may be changed
+     * @param index Index of the node
+     * @param delta Number of workers that are added (or removed if negative)
+     */
+    void addWorkers(int index, int delta) {
+        numberWorkers[index] += delta;
+    }
+
+    /**
+     * Look up the index of an oil rig by its name, views of this store are resolved without a lookup
+     * @param oilRig The oil rig
+     * @return Index of the oil rig or -1 if it is unknown
+     */
+    int indexOf(OilRig oilRig) {
+        if (oilRig instanceof View && ((View) oilRig).columns == this)
+            return ((View) oilRig).index;
+        return names.indexOf(oilRig.getName());
+    }
+
+    /**
+     * Get a flyweight view of an oil rig
+     * @param index Index of the oil rig
+     * @return The oil rig
+     */
+    OilRig get(int index) {
+        // Threads that race here may create a view twice, that is harmless as nodes are compared by name
+        View[] cached = views;
+        if (cached == null || index >= cached.length) {
+            cached = cached == null ? new View[size()] : Arrays.copyOf(cached, size());
+            views = cached;
+        }
+
+        View view = cached[index];
+        if (view == null) {
+            view = new View(this, index);
+            cached[index] = view;
+        }
+        return view;
+    }
+
+    int size() {
+        return names.size();
+    }
+
+    /**
+     * An oil rig whose stats are read from the columns
+     */
+    private static final class View extends OilRig {
+
+        private final OilRigColumns columns;
+        private final int index;
+        private String name;
+
+        private View(OilRigColumns columns, int index) {
+            this.columns = columns;
+            this.index = index;
+        }
+
+        @Override
+        public String getName() {
+            if (name == null)
+                name = columns.names.get(index);
+            return name;
+        }
+
+        @Override
+        public Integer getInitNumberWorkers() {
+            return columns.initNumberWorkers[index];
+        }
+
+        @Override
+        public Integer getNumberWorkers() {
+            return columns.numberWorkers[index];
+        }
+
+        @Override
+        public Integer getInitNumberSmallShips() {
+            return columns.initNumberSmallShips[index];
+        }
+
+        @Override
+        public Integer getNumberSmallShips() {
+            return columns.numberSmallShips[index];
+        }
+
+        @Override
+        public Integer getInitNumberBigShips() {
+            return columns.initNumberBigShips[index];
+        }
+
+        @Override
+        public Integer getNumberBigShips() {
+            return columns.numberBigShips[index];
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package backend.fleet;
+
+import backend.entities.Ship;
+
+import java.util.Arrays;
+
+/** Columnar store of ships, their capacity and number of workers aboard are int columns next to a NameDictionary
+ * The ships are handed out as flyweight views that read the columns, every view is created on first access
+ * and kept, so repeated lookups and lists of ships share one view per ship.
+ * Where a ship anchors is not stored here, it changes more often and is kept by the Fleet.
+ * A store is only changed while it is built, Fleet snapshots copy it before they change worker counts.
+ * @author Louis Wendler
+ * @since 1.0
+ * @version 1.0
+ */
+final class ShipColumns {
+
+    private final NameDictionary names;
+    private int[] maxCapacity;
+    private int[] numberWorkers;
+    private View[] views;  // Views handed out so far, created on first access
+
+    /**
+     * Create an empty ShipColumns
+     */
+    ShipColumns() {
+        names = new NameDictionary();
+        maxCapacity = new int[0];
+        numberWorkers = new int[0];
+    }
+
+    /**
+     * Copy a ShipColumns, ships can be added to the copy without changing the original
+     * @param other The ShipColumns that is copied
+     */
+    ShipColumns(ShipColumns other) {
+        names = new NameDictionary(other.names);
+        maxCapacity = other.maxCapacity.clone();
+        numberWorkers = other.numberWorkers.clone();
+    }
+
+    /**
+     * Add a ship unless a ship with its name is known, the stats of a known ship are kept
+     * @param ship The ship
+     * @return Index of the ship
+     */
+    int add(Ship ship) {
+        int index = indexOf(ship);
+        if (index >= 0)
+            return index;
+
+        index = names.add(ship.getName());
+        if (index == maxCapacity.length) {
+            int capacity = Math.max(4, index * 2);
+            maxCapacity = Arrays.copyOf(maxCapacity, capacity);
+            numberWorkers = Arrays.copyOf(numberWorkers, capacity);
+        }
+        maxCapacity[index] = ship.getMaxWorkers();
+        numberWorkers[index] = ship.getNumberWorkers();
+        return index;
+    }
+
+    /**
+     * Change the number of workers deployed at a node, only a copy that no snapshot uses yet may be changed
+     * @param index Index of the node
+     * @param delta Number of workers that are added (or removed if negative)
+     */
+    void addWorkers(int index, int delta) {
+        numberWorkers[index] += delta;
+    }
+
+    /**
+     * Look up the index of a ship by its name, views of this store are resolved without a lookup
+     * @param ship The ship
+     * @return Index of the ship or -1 if it is unknown
+     */
+    int indexOf(Ship ship) {
+        if (ship instanceof View && ((View) ship).columns == this)
+            return ((View) ship).index;
+        return names.indexOf(ship.getName());
+    }
+
+    /**
+     * Get a flyweight view of a ship
+     * @param index Index of the ship
+     * @return The ship
+     */
+    Ship get(int index) {
+        // Threads that race here may create a view twice, that is harmless as nodes are compared by name
+        View[] cached = views;
+        if (cached == null || index >= cached.length) {
+            cached = cached == null ? new View[size()] : Arrays.copyOf(cached, size());
+            views = cached;
+        }
+
+        View view = cached[index];
+        if (view == null) {
+            view = new View(this, index);
+            cached[index] = view;
+        }
+        return view;
+    }
+
+    int size() {
+        return names.size();
+    }
+
+    /**
+     * A ship whose stats are read from the columns
+     */
+    private static final class View extends Ship {
+
+        private final ShipColumns columns;
+        private final int index;
+        private String name;
+
+        private View(ShipColumns columns, int index) {
+            this.columns = columns;
+            this.index = index;
+        }
+
+        @Override
+        public String getName() {
+            if (name == null)
+                name = columns.names.get(index);
+            return name;
+        }
+
+        @Override
+        public Integer getMaxWorkers() {
+            return columns.maxCapacity[index];
+        }
+
+        @Override
+        public Integer getNumberWorkers() {
+            return columns.numberWorkers[index];
+        }
+    }
+}
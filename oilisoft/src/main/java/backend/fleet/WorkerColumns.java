@@ -0,0 +1,140 @@
+package backend.fleet;
+
+import backend.entities.Worker;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+/** Columnar store of workers, a NameDictionary of their names and an int column that refers to their interned job
+ * The workers are handed out as flyweight views that read the columns, every view is created on first access
+ * and kept, so repeated lookups and lists of workers share one view per worker.
+ * Where a worker is deployed is not stored here, it is kept by the Fleet.
+ * A store is only changed while it is built, Fleet snapshots copy it before they add workers.
+ * @author Louis Wendler
+ * @since 1.0
+ * @version 1.0
+ */
+final class WorkerColumns {
+
+    private static final int NO_JOB = -1;
+
+    private final NameDictionary names;
+    private final ArrayList<String> jobs;
+    private int[] job;
+    private View[] views;  // Views handed out so far, created on first access
+
+    /**
+     * Create an empty WorkerColumns
+     */
+    WorkerColumns() {
+        names = new NameDictionary();
+        jobs = new ArrayList<>();
+        job = new int[0];
+    }
+
+    /**
+     * Copy a WorkerColumns, workers can be added to the copy without changing the original
+     * @param other The WorkerColumns that is copied
+     */
+    WorkerColumns(WorkerColumns other) {
+        names = new NameDictionary(other.names);
+        jobs = new ArrayList<>(other.jobs);
+        job = other.job.clone();
+    }
+
+    /**
+     * Add a worker unless a worker with its name is known
+     * @param worker The worker
+     * @return Index of the worker
+     */
+    int add(Worker worker) {
+        int index = indexOf(worker);
+        if (index >= 0)
+            return index;
+
+        index = names.add(worker.getName());
+        if (index == job.length)
+            job = Arrays.copyOf(job, Math.max(4, index * 2));
+        job[index] = jobIndex(worker.getJob());
+        return index;
+    }
+
+    /**
+     * Look up the index of a worker by its name, views of this store are resolved without a lookup
+     * @param worker The worker
+     * @return Index of the worker or -1 if it is unknown
+     */
+    int indexOf(Worker worker) {
+        if (worker instanceof View && ((View) worker).columns == this)
+            return ((View) worker).index;
+        return names.indexOf(worker.getName());
+    }
+
+    /**
+     * Get a flyweight view of a worker
+     * @param index Index of the worker
+     * @return The worker
+     */
+    Worker get(int index) {
+        // Threads that race here may create a view twice, that is harmless as nodes are compared by name
+        View[] cached = views;
+        if (cached == null || index >= cached.length) {
+            cached = cached == null ? new View[size()] : Arrays.copyOf(cached, size());
+            views = cached;
+        }
+
+        View view = cached[index];
+        if (view == null) {
+            view = new View(this, index);
+            cached[index] = view;
+        }
+        return view;
+    }
+
+    int size() {
+        return names.size();
+    }
+
+    /**
+     * Look up or add a job, there are only a few distinct jobs
+     */
+    private int jobIndex(String name) {
+        if (name == null)
+            return NO_JOB;
+
+        int index = jobs.indexOf(name);
+        if (index < 0) {
+            index = jobs.size();
+            jobs.add(name.intern());
+        }
+        return index;
+    }
+
+    /**
+     * A worker whose job is read from the columns
+     */
+    private static final class View extends Worker {
+
+        private final WorkerColumns columns;
+        private final int index;
+        private String name;
+
+        private View(WorkerColumns columns, int index) {
+            this.columns = columns;
+            this.index = index;
+        }
+
+        @Override
+        public String getName() {
+            if (name == null)
+                name = columns.names.get(index);
+            return name;
+        }
+
+        @Override
+        public String getJob() {
+            int job = columns.job[index];
+            return job == NO_JOB ? null : columns.jobs.get(job);
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package backend.memory;
+
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+
+/**
+ * Node of the MemoryGraph with its label, properties and relationships
+ * @author Louis Wendler
+ * @since 1.0
+ * @version 1.0
+ */
+public class GraphNode {
+
+    private final long id;
+    private final String label;
+    private final HashMap<String, Object> properties;
+
+    final LinkedHashSet<GraphRelationship> outgoing;
+    final LinkedHashSet<GraphRelationship> incoming;
+
+    /**
+     * Create a GraphNode, nodes are created by the MemoryGraph
+     * @param id Unique id of the node
+     * @param label Label of the node
+     * @param properties Properties of the node (null values are not stored)
+     */
+    GraphNode(long id, String label, Map<String, Object> properties) {
+        this.id = id;
+        this.label = label;
+        this.properties = new HashMap<>();
+        for (Map.Entry<String, Object> property : properties.entrySet()) {
+            if (property.getValue() != null)
+                this.properties.put(property.getKey(), property.getValue());
+        }
+
+        outgoing = new LinkedHashSet<>();
+        incoming = new LinkedHashSet<>();
+    }
+
+    /**
+     * Get a property as number
+     * @param key Name of the property
+     * @return The value or 0 if the property is missing or no number
+     */
+    public long getLong(String key) {
+        Object value = properties.get(key);
+        return value instanceof Number ? ((Number) value).longValue() : 0;
+    }
+
+    /**
+     * Count the relationships of a type that end at this node
+     * @param type Type of the relationships
+     * @return Number of incoming relationships
+     */
+    public int countIncoming(String type) {
+        int count = 0;
+        for (GraphRelationship relationship : incoming) {
+            if (relationship.getType().equals(type))
+                count++;
+        }
+        return count;
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    public String getLabel() {
+        return label;
+    }
+
+    public Object getName() {
+        return properties.get("name");
+    }
+
+    public Object getProperty(String key) {
+        return properties.get(key);
+    }
+
+    public HashMap<String, Object> getProperties() {
+        return properties;
+    }
+}
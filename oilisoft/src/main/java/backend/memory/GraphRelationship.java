@@ -0,0 +1,48 @@
+package backend.memory;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Directed relationship between two nodes of the MemoryGraph
+ * @author Louis Wendler
+ * @since 1.0
+ * @version 1.0
+ */
+public class GraphRelationship {
+
+    private final String type;
+    private final GraphNode from;
+    private final GraphNode to;
+    private final HashMap<String, Object> properties;
+
+    /**
+     * Create a GraphRelationship, relationships are created by the MemoryGraph
+     * @param from The start node
+     * @param type Type of the relationship
+     * @param to The end node
+     * @param properties Properties of the relationship
+     */
+    GraphRelationship(GraphNode from, String type, GraphNode to, Map<String, Object> properties) {
+        this.type = type;
+        this.from = from;
+        this.to = to;
+        this.properties = new HashMap<>(properties);
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public GraphNode getFrom() {
+        return from;
+    }
+
+    public GraphNode getTo() {
+        return to;
+    }
+
+    public HashMap<String, Object> getProperties() {
+        return properties;
+    }
+}
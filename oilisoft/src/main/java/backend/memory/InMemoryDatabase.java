@@ -0,0 +1,621 @@
+package backend.memory;
+
+import backend.DatabaseAccess;
+import backend.DatabaseAccessException;
+import backend.DatabaseManagement;
+import backend.RecordVisitor;
+import backend.databases.ExampleDatabase;
+import backend.databases.FleetSettings;
+import backend.databases.SyntheticDatabase;
+import backend.entities.CypherQuery;
+import backend.metrics.DatabaseMetrics;
+import backend.metrics.QueryStats;
+import org.neo4j.driver.Record;
+import org.neo4j.driver.Value;
+import org.neo4j.driver.Values;
+import org.neo4j.driver.internal.InternalRecord;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Stand-in for the Neo4j database that keeps the graph in memory
+ * It understands the query shapes of the entities, the UI and the database generators,
+ * which are recognized by the name of the CypherQuery (see CypherQuery.named).
+ * Unnamed writes are read as scripts of CREATE patterns like the ExampleDatabase's.
+ * Any other query fails with a DatabaseAccessException, there is no general Cypher engine.
+ * @author Louis Wendler
+ * @since 1.0
+ * @version 1.0
+ */
+public class InMemoryDatabase implements DatabaseAccess {
+
+    public static final String URI_SCHEME = "memory:";
+
+    private static final String ANCHORED = "ANCHORED";
+    private static final String DEPLOYED = "DEPLOYED";
+    private static final String PARTNER = "PARTNER";
+
+    private static final List<String> COUNT_KEYS = Collections.singletonList("count");
+    private static final List<String> WORKER_KEYS = Arrays.asList("w.name", "w.job");
+    private static final List<String> FLEET_KEYS = Arrays.asList(
+            "name", "initNumberWorkers", "initNumberSmallShips", "initNumberBigShips",
+            "numberWorkers", "numberSmallShips", "numberBigShips", "ships"
+    );
+
+    private static final Pattern MATCH_LABEL = Pattern.compile("^MATCH \\(n:(\\w+) ");
+    private static final Pattern MATCH_FROM_LABEL = Pattern.compile("^MATCH \\(f:(\\w+) ", Pattern.MULTILINE);
+    private static final Pattern CREATE_PATTERN = Pattern.compile(
+            "CREATE \\((\\w+)(?::(\\w+) \\{([^}]*)\\}\\)|\\)-\\[\\w*(?::(\\w+)(?: \\{([^}]*)\\})?)?\\]->\\((\\w+)\\))"
+    );
+    private static final Pattern ATTRIBUTE = Pattern.compile("(\\w+):\\$(\\w+)");
+
+    /**
+     * Runs a query shape on the graph
+     */
+    private interface Shape {
+        ArrayList<Record> run(CypherQuery cypherQuery);
+    }
+
+    private final String uri;
+    private final MemoryGraph graph;
+    private final DatabaseMetrics metrics;
+    private final HashMap<String, Shape> readShapes;
+    private final HashMap<String, Shape> writeShapes;
+
+    private volatile ExecutorService executor;
+
+    /**
+     * Create an empty InMemoryDatabase
+     */
+    public InMemoryDatabase() {
+        this(URI_SCHEME);
+    }
+
+    /**
+     * Create an empty InMemoryDatabase
+     * @param uri Address the database is reported under in the metrics
+     */
+    public InMemoryDatabase(String uri) {
+        this.uri = uri;
+        graph = new MemoryGraph();
+        metrics = new DatabaseMetrics(uri, Collections::emptyList);
+
+        readShapes = new HashMap<>();
+        readShapes.put("OilRig.cypherMatchFleet", this::matchFleet);
+        readShapes.put("OilRig.cypherCountWorkers", query -> countIncoming(query, "OilRig", "o_name", DEPLOYED, 0));
+        readShapes.put("OilRig.cypherCountSmallShips", query -> countIncoming(query, "OilRig", "o_name", ANCHORED, 50));
+        readShapes.put("OilRig.cypherCountBigShips", query -> countIncoming(query, "OilRig", "o_name", ANCHORED, 100));
+        readShapes.put("Ship.cypherCountWorkers", query -> countIncoming(query, "Ship", "s_name", DEPLOYED, 0));
+        readShapes.put("UI.cypherWorkers", this::workers);
+
+        writeShapes = new HashMap<>();
+        writeShapes.put("ExampleDatabase.deleteAll", this::deleteAll);
+        writeShapes.put("DatabaseSchema.cypherUniqueName", query -> new ArrayList<>());
+        writeShapes.put("UI.cypherRedeployShip", this::redeployShip);
+        writeShapes.put("UI.cypherRedeployWorker", this::redeployWorkers);
+        writeShapes.put("SyntheticDatabase.createOilRigs", this::createOilRigs);
+        writeShapes.put("SyntheticDatabase.createPartners", this::createPartners);
+        writeShapes.put("SyntheticDatabase.createShips", query -> createRelated(query, "Ship", ANCHORED));
+        writeShapes.put("SyntheticDatabase.createWorkers", query -> createRelated(query, "Worker", DEPLOYED));
+
+        executor = createExecutor();
+        metrics.start(Long.getLong("oilisoft.db.metricsLogPeriod", DatabaseManagement.DEFAULT_METRICS_LOG_PERIOD));
+    }
+
+    /**
+     * Open an InMemoryDatabase
+     * "memory:example" is filled with the ExampleDatabase, "memory:synthetic" with a SyntheticDatabase
+     * that is shaped by the oilisoft.fleet.* system properties, any other "memory:" URI stays empty.
+     * @param uri Address of the database
+     * @return The InMemoryDatabase
+     */
+    public static InMemoryDatabase open(String uri) {
+        InMemoryDatabase database = new InMemoryDatabase(uri);
+        String fleet = uri.substring(URI_SCHEME.length());
+        if (fleet.equals("example"))
+            new ExampleDatabase(database);
+        else if (fleet.equals("synthetic"))
+            new SyntheticDatabase(database, new FleetSettings());
+
+        return database;
+    }
+
+    /**
+     * Create the pool that runs the asynchronous queries
+     * @return Executor with daemon threads
+     */
+    private static ExecutorService createExecutor() {
+        int threads = Integer.getInteger("oilisoft.db.mappingThreads", DatabaseManagement.DEFAULT_MAPPING_THREADS);
+        AtomicInteger threadNumber = new AtomicInteger();
+
+        return Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "oilisoft-memory-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * The database is always reachable until it is closed
+     * @throws DatabaseAccessException If the database has been closed
+     */
+    @Override
+    public void verifyConnectivity() {
+        if (executor == null)
+            throw new DatabaseAccessException(uri, new IllegalStateException("The database has been closed"), false, 1);
+    }
+
+    /**
+     * Close the database, the graph is kept until the object is garbage collected
+     */
+    @Override
+    public synchronized void close() {
+        if (executor == null)
+            return;
+
+        executor.shutdown();
+        executor = null;
+        metrics.stop();
+    }
+
+    @Override
+    public ArrayList<Record> writeTx(CypherQuery cypherQuery) {
+        return run(true, cypherQuery);
+    }
+
+    @Override
+    public ArrayList<ArrayList<Record>> writeTx(List<CypherQuery> cypherQueries) {
+        QueryStats stats = metrics.stats(cypherQueries);
+        long started = stats.start();
+        ArrayList<ArrayList<Record>> results = null;
+        try {
+            ArrayList<Shape> shapes = new ArrayList<>();
+            for (CypherQuery cypherQuery : cypherQueries) {
+                shapes.add(shape(true, cypherQuery));
+            }
+
+            results = graph.write(() -> {
+                ArrayList<ArrayList<Record>> shapeResults = new ArrayList<>();
+                for (int i = 0; i < shapes.size(); i++) {
+                    shapeResults.add(shapes.get(i).run(cypherQueries.get(i)));
+                }
+                return shapeResults;
+            });
+            return results;
+        } catch (RuntimeException e) {
+            throw new DatabaseAccessException(cypherQueries.toString(), e, false, 1);
+        } finally {
+            long rows = 0;
+            if (results != null) {
+                for (ArrayList<Record> records : results) {
+                    rows += records.size();
+                }
+            }
+            stats.stop(started, rows, results == null);
+        }
+    }
+
+    @Override
+    public ArrayList<Record> readTx(CypherQuery cypherQuery) {
+        return run(false, cypherQuery);
+    }
+
+    @Override
+    public long streamWriteTx(CypherQuery cypherQuery, RecordVisitor visitor, Runnable onAttempt) {
+        ArrayList<Record> records = run(true, cypherQuery);
+        if (onAttempt != null)
+            onAttempt.run();
+        return visit(records, visitor);
+    }
+
+    @Override
+    public long streamReadTx(CypherQuery cypherQuery, RecordVisitor visitor, Runnable onAttempt) {
+        ArrayList<Record> records = run(false, cypherQuery);
+        if (onAttempt != null)
+            onAttempt.run();
+        return visit(records, visitor);
+    }
+
+    @Override
+    public <T> CompletionStage<T> readTxAsync(CypherQuery cypherQuery, Function<List<Record>, T> mapper) {
+        return runAsync(false, cypherQuery, mapper);
+    }
+
+    @Override
+    public <T> CompletionStage<T> writeTxAsync(CypherQuery cypherQuery, Function<List<Record>, T> mapper) {
+        return runAsync(true, cypherQuery, mapper);
+    }
+
+    @Override
+    public DatabaseMetrics getMetrics() {
+        return metrics;
+    }
+
+    public MemoryGraph getGraph() {
+        return graph;
+    }
+
+    /**
+     * Run a query on the executor
+     * @param write True to run the query in a write transaction
+     * @param cypherQuery CypherQuery with its bound parameters
+     * @param mapper Turns the records into the result
+     * @return Stage that completes with the mapped result, or with a DatabaseAccessException
+     */
+    private <T> CompletionStage<T> runAsync(boolean write, CypherQuery cypherQuery, Function<List<Record>, T> mapper) {
+        CompletableFuture<T> completed = new CompletableFuture<>();
+        Runnable task = () -> {
+            try {
+                completed.complete(mapper.apply(run(write, cypherQuery)));
+            } catch (Throwable e) {
+                completed.completeExceptionally(e);
+            }
+        };
+
+        ExecutorService current = executor;
+        try {
+            if (current == null)
+                throw new RejectedExecutionException("The database has been closed");
+            current.execute(task);
+        } catch (RejectedExecutionException e) {
+            completed.completeExceptionally(new DatabaseAccessException(cypherQuery.getText(), e, false, 0));
+        }
+
+        return completed;
+    }
+
+    /**
+     * Run a query in a read or write transaction of the graph
+     * @param write True to run the query in a write transaction
+     * @param cypherQuery CypherQuery with its bound parameters
+     * @return Result of query as List of Records
+     * @throws DatabaseAccessException If the query is not understood or failed, a failed write is rolled back
+     */
+    private ArrayList<Record> run(boolean write, CypherQuery cypherQuery) {
+        QueryStats stats = metrics.stats(cypherQuery);
+        long started = stats.start();
+        ArrayList<Record> records = null;
+        try {
+            Shape shape = shape(write, cypherQuery);
+            records = write ? graph.write(() -> shape.run(cypherQuery)) : graph.read(() -> shape.run(cypherQuery));
+            return records;
+        } catch (RuntimeException e) {
+            throw new DatabaseAccessException(cypherQuery.getText(), e, false, 1);
+        } finally {
+            stats.stop(started, records == null ? 0 : records.size(), records == null);
+        }
+    }
+
+    /**
+     * Find the shape that runs a query
+     * @param write True if the query runs in a write transaction
+     * @param cypherQuery CypherQuery with its bound parameters
+     * @return The Shape
+     * @throws UnsupportedOperationException If the shape is unknown or writes in a read transaction
+     */
+    private Shape shape(boolean write, CypherQuery cypherQuery) {
+        String name = cypherQuery.getName();
+        Shape shape = readShapes.get(name);
+        if (shape != null)
+            return shape;
+
+        if (!write)
+            throw new UnsupportedOperationException(writeShapes.containsKey(name)
+                    ? "Writing in a read transaction is not allowed: " + name
+                    : unsupported(cypherQuery));
+
+        shape = writeShapes.get(name);
+        return shape != null ? shape : this::createScript;
+    }
+
+    private static String unsupported(CypherQuery cypherQuery) {
+        return "Query shape is not supported in memory: "
+                + (cypherQuery.getName() == null ? cypherQuery.getText() : cypherQuery.getName());
+    }
+
+    private static long visit(ArrayList<Record> records, RecordVisitor visitor) {
+        long visited = 0;
+        for (Record record : records) {
+            visited++;
+            if (!visitor.visit(record))
+                break;
+        }
+        return visited;
+    }
+
+    /**
+     * Create a Record like the driver does
+     * @param keys Keys of the record
+     * @param values Java values of the fields
+     * @return The Record
+     */
+    private static Record record(List<String> keys, Object... values) {
+        Value[] fields = new Value[values.length];
+        for (int i = 0; i < values.length; i++) {
+            fields[i] = Values.value(values[i]);
+        }
+        return new InternalRecord(keys, fields);
+    }
+
+    private static ArrayList<Record> count(long count) {
+        ArrayList<Record> records = new ArrayList<>();
+        records.add(record(COUNT_KEYS, count));
+        return records;
+    }
+
+    /**
+     * Get the label of the node n that a query matches first
+     * @param cypherQuery CypherQuery that starts with a Node.cypherMatch("n")
+     * @return The label
+     */
+    private static String matchedLabel(CypherQuery cypherQuery) {
+        Matcher matcher = MATCH_LABEL.matcher(cypherQuery.getText());
+        if (!matcher.find())
+            throw new UnsupportedOperationException("Query does not match a node n: " + cypherQuery.getName());
+        return matcher.group(1);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<Map<String, Object>> rows(CypherQuery cypherQuery) {
+        return (List<Map<String, Object>>) cypherQuery.getParameters().get("rows");
+    }
+
+    private static int intParameter(CypherQuery cypherQuery, String name) {
+        return ((Number) cypherQuery.getParameters().get(name)).intValue();
+    }
+
+    /**
+     * ExampleDatabase.deleteAll: delete up to $limit nodes with their relationships
+     */
+    private ArrayList<Record> deleteAll(CypherQuery cypherQuery) {
+        int limit = intParameter(cypherQuery, "limit");
+        ArrayList<GraphNode> nodes = new ArrayList<>();
+        for (GraphNode node : graph.getNodes()) {
+            if (nodes.size() == limit)
+                break;
+            nodes.add(node);
+        }
+
+        for (GraphNode node : nodes) {
+            graph.deleteNode(node);
+        }
+        return count(nodes.size());
+    }
+
+    /**
+     * OilRig.cypherMatchFleet: every oil rig with its worker count and its ships
+     */
+    private ArrayList<Record> matchFleet(CypherQuery cypherQuery) {
+        ArrayList<Record> records = new ArrayList<>();
+        for (GraphNode oilRig : graph.getNodes("OilRig")) {
+            ArrayList<Map<String, Object>> ships = new ArrayList<>();
+            int smallShips = 0;
+            int bigShips = 0;
+            for (GraphRelationship anchored : graph.incoming(oilRig, ANCHORED)) {
+                GraphNode ship = anchored.getFrom();
+                Map<String, Object> shipRow = new LinkedHashMap<>();
+                shipRow.put("name", ship.getName());
+                shipRow.put("maxCapacity", ship.getProperty("maxCapacity"));
+                shipRow.put("numberWorkers", ship.countIncoming(DEPLOYED));
+                ships.add(shipRow);
+
+                if (ship.getLong("maxCapacity") == 50)
+                    smallShips++;
+                else if (ship.getLong("maxCapacity") == 100)
+                    bigShips++;
+            }
+
+            records.add(record(FLEET_KEYS,
+                    oilRig.getName(),
+                    oilRig.getProperty("initNumberWorkers"),
+                    oilRig.getProperty("initNumberSmallShips"),
+                    oilRig.getProperty("initNumberBigShips"),
+                    oilRig.countIncoming(DEPLOYED),
+                    smallShips,
+                    bigShips,
+                    ships
+            ));
+        }
+        return records;
+    }
+
+    /**
+     * OilRig/Ship.cypherCount*: count the relationships of a type that end at a node
+     * @param maxCapacity Only count nodes of this capacity (0 counts all)
+     */
+    private ArrayList<Record> countIncoming(CypherQuery cypherQuery, String label, String parameter, String type, long maxCapacity) {
+        GraphNode node = graph.findNode(label, cypherQuery.getParameters().get(parameter));
+        long count = 0;
+        if (node != null) {
+            for (GraphRelationship relationship : graph.incoming(node, type)) {
+                if (maxCapacity == 0 || relationship.getFrom().getLong("maxCapacity") == maxCapacity)
+                    count++;
+            }
+        }
+        return count(count);
+    }
+
+    /**
+     * UI.cypherWorkers: the names and jobs of up to $limit workers deployed on node n
+     */
+    private ArrayList<Record> workers(CypherQuery cypherQuery) {
+        ArrayList<Record> records = new ArrayList<>();
+        GraphNode node = graph.findNode(matchedLabel(cypherQuery), cypherQuery.getParameters().get("n_name"));
+        if (node == null)
+            return records;
+
+        int limit = intParameter(cypherQuery, "limit");
+        for (GraphRelationship deployed : graph.incoming(node, DEPLOYED)) {
+            if (records.size() == limit)
+                break;
+
+            GraphNode worker = deployed.getFrom();
+            records.add(record(WORKER_KEYS, worker.getName(), worker.getProperty("job")));
+        }
+        return records;
+    }
+
+    /**
+     * UI.cypherRedeployShip: anchor ship s at oil rig o
+     */
+    private ArrayList<Record> redeployShip(CypherQuery cypherQuery) {
+        GraphNode ship = graph.findNode("Ship", cypherQuery.getParameters().get("s_name"));
+        GraphNode oilRig = graph.findNode("OilRig", cypherQuery.getParameters().get("o_name"));
+        if (ship != null && oilRig != null)
+            move(ship, ANCHORED, oilRig);
+
+        return new ArrayList<>();
+    }
+
+    /**
+     * UI.cypherRedeployWorker: deploy all workers named in $workerNames that are deployed on node f on node n
+     */
+    private ArrayList<Record> redeployWorkers(CypherQuery cypherQuery) {
+        GraphNode node = graph.findNode(matchedLabel(cypherQuery), cypherQuery.getParameters().get("n_name"));
+        Matcher fromLabel = MATCH_FROM_LABEL.matcher(cypherQuery.getText());
+        if (!fromLabel.find())
+            throw new UnsupportedOperationException("Query does not match a node f: " + cypherQuery.getName());
+        GraphNode from = graph.findNode(fromLabel.group(1), cypherQuery.getParameters().get("f_name"));
+        if (node == null || from == null)
+            return new ArrayList<>();
+
+        for (Object workerName : (List<?>) cypherQuery.getParameters().get("workerNames")) {
+            GraphNode worker = graph.findNode("Worker", workerName);
+            if (worker != null)
+                move(worker, DEPLOYED, from, node);
+        }
+        return new ArrayList<>();
+    }
+
+    /**
+     * Replace each relationship of a type that starts at a node by one to another node
+     * Like the MATCH ... DELETE ... CREATE statement, nodes without such a relationship are not touched
+     */
+    private void move(GraphNode node, String type, GraphNode to) {
+        move(node, type, null, to);
+    }
+
+    /**
+     * Replace each relationship of a type from a node to another node by one to a third node
+     * @param from The node the relationships have to end at, any node if null
+     */
+    private void move(GraphNode node, String type, GraphNode from, GraphNode to) {
+        for (GraphRelationship relationship : graph.outgoing(node, type)) {
+            if (from != null && relationship.getTo() != from)
+                continue;
+
+            graph.deleteRelationship(relationship);
+            graph.createRelationship(node, type, to, Collections.emptyMap());
+        }
+    }
+
+    /**
+     * SyntheticDatabase.createOilRigs: create an oil rig of every row
+     */
+    private ArrayList<Record> createOilRigs(CypherQuery cypherQuery) {
+        for (Map<String, Object> row : rows(cypherQuery)) {
+            graph.createNode("OilRig", row);
+        }
+        return new ArrayList<>();
+    }
+
+    /**
+     * SyntheticDatabase.createPartners: relate the oil rigs row.from and row.to as partners
+     */
+    private ArrayList<Record> createPartners(CypherQuery cypherQuery) {
+        for (Map<String, Object> row : rows(cypherQuery)) {
+            GraphNode from = graph.findNode("OilRig", row.get("from"));
+            GraphNode to = graph.findNode("OilRig", row.get("to"));
+            if (from != null && to != null)
+                graph.createRelationship(from, PARTNER, to, Collections.emptyMap());
+        }
+        return new ArrayList<>();
+    }
+
+    /**
+     * SyntheticDatabase.createShips/createWorkers: create row.node and relate it to the oil rig row.oilRig
+     */
+    @SuppressWarnings("unchecked")
+    private ArrayList<Record> createRelated(CypherQuery cypherQuery, String label, String type) {
+        for (Map<String, Object> row : rows(cypherQuery)) {
+            GraphNode oilRig = graph.findNode("OilRig", row.get("oilRig"));
+            if (oilRig == null)
+                continue;
+
+            GraphNode node = graph.createNode(label, (Map<String, Object>) row.get("node"));
+            graph.createRelationship(node, type, oilRig, Collections.emptyMap());
+        }
+        return new ArrayList<>();
+    }
+
+    /**
+     * Run a script of CREATE patterns as rendered by Node.appendCypher and Node.appendRelationshipTo
+     * @throws UnsupportedOperationException If the query contains anything else
+     */
+    private ArrayList<Record> createScript(CypherQuery cypherQuery) {
+        String text = cypherQuery.getText();
+        HashMap<String, GraphNode> variables = new HashMap<>();
+
+        Matcher matcher = CREATE_PATTERN.matcher(text);
+        int end = 0;
+        while (matcher.find()) {
+            if (!isBlank(text, end, matcher.start()))
+                break;
+            end = matcher.end();
+
+            if (matcher.group(2) != null) {
+                GraphNode node = graph.createNode(matcher.group(2), attributes(matcher.group(3), cypherQuery));
+                variables.put(matcher.group(1), node);
+                continue;
+            }
+
+            GraphNode from = variables.get(matcher.group(1));
+            GraphNode to = variables.get(matcher.group(6));
+            if (matcher.group(4) == null || from == null || to == null)
+                throw new UnsupportedOperationException("Relationship needs a type and bound nodes: " + matcher.group());
+            graph.createRelationship(from, matcher.group(4), to, attributes(matcher.group(5), cypherQuery));
+        }
+
+        if (!isBlank(text, end, text.length()))
+            throw new UnsupportedOperationException(unsupported(cypherQuery));
+        return new ArrayList<>();
+    }
+
+    /**
+     * Read the attributes of a pattern, e.g. "name:$o0_name, maxCapacity:$o0_maxCapacity"
+     */
+    private static HashMap<String, Object> attributes(String pattern, CypherQuery cypherQuery) {
+        HashMap<String, Object> attributes = new HashMap<>();
+        if (pattern == null)
+            return attributes;
+
+        Matcher matcher = ATTRIBUTE.matcher(pattern);
+        while (matcher.find()) {
+            attributes.put(matcher.group(1), cypherQuery.getParameters().get(matcher.group(2)));
+        }
+        return attributes;
+    }
+
+    private static boolean isBlank(String text, int from, int to) {
+        for (int i = from; i < to; i++) {
+            if (!Character.isWhitespace(text.charAt(i)))
+                return false;
+        }
+        return true;
+    }
+}
@@ -0,0 +1,234 @@
+package backend.memory;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
+
+/**
+ * Property graph held in memory
+ * Nodes are indexed by label and by their unique name, every node knows its relationships.
+ * Reads run in parallel, writes one at a time; a failed write is rolled back with an undo log,
+ * so every write transaction is applied completely or not at all.
+ * @author Louis Wendler
+ * @since 1.0
+ * @version 1.0
+ */
+public class MemoryGraph {
+
+    private final LinkedHashMap<Long, GraphNode> nodes;
+    private final HashMap<String, LinkedHashMap<Object, GraphNode>> nodesByName;
+    private final ReentrantReadWriteLock lock;
+
+    private ArrayList<Runnable> undoLog;
+    private long nextId;
+
+    /**
+     * Create an empty MemoryGraph
+     */
+    public MemoryGraph() {
+        nodes = new LinkedHashMap<>();
+        nodesByName = new HashMap<>();
+        lock = new ReentrantReadWriteLock();
+    }
+
+    /**
+     * Run a read transaction
+     * @param work Reads the graph
+     * @return Result of the work
+     */
+    public <T> T read(Supplier<T> work) {
+        lock.readLock().lock();
+        try {
+            return work.get();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Run a write transaction, it is rolled back if the work fails
+     * @param work Changes the graph
+     * @return Result of the work
+     */
+    public <T> T write(Supplier<T> work) {
+        lock.writeLock().lock();
+        try {
+            undoLog = new ArrayList<>();
+            try {
+                return work.get();
+            } catch (RuntimeException | Error e) {
+                for (int i = undoLog.size() - 1; i >= 0; i--) {
+                    undoLog.get(i).run();
+                }
+                throw e;
+            } finally {
+                undoLog = null;
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Create a node, its name has to be unique among the nodes of its label
+     * @param label Label of the node
+     * @param properties Properties of the node
+     * @return The node
+     * @throws IllegalStateException If a node with the label and name exists
+     */
+    public GraphNode createNode(String label, Map<String, Object> properties) {
+        GraphNode node = new GraphNode(nextId++, label, properties);
+        Object name = node.getName();
+
+        LinkedHashMap<Object, GraphNode> byName = nodesByName.computeIfAbsent(label, key -> new LinkedHashMap<>());
+        if (name != null && byName.containsKey(name))
+            throw new IllegalStateException(String.format("Node(%s) already exists with name '%s'", label, name));
+
+        nodes.put(node.getId(), node);
+        if (name != null)
+            byName.put(name, node);
+
+        undo(() -> {
+            nodes.remove(node.getId());
+            if (name != null)
+                byName.remove(name);
+        });
+        return node;
+    }
+
+    /**
+     * Delete a node together with its relationships
+     * @param node The node
+     */
+    public void deleteNode(GraphNode node) {
+        for (GraphRelationship relationship : new ArrayList<>(node.outgoing)) {
+            deleteRelationship(relationship);
+        }
+        for (GraphRelationship relationship : new ArrayList<>(node.incoming)) {
+            deleteRelationship(relationship);
+        }
+
+        nodes.remove(node.getId());
+        Object name = node.getName();
+        if (name != null)
+            nodesByName.get(node.getLabel()).remove(name);
+
+        undo(() -> {
+            nodes.put(node.getId(), node);
+            if (name != null)
+                nodesByName.get(node.getLabel()).put(name, node);
+        });
+    }
+
+    /**
+     * Create a relationship between two nodes
+     * @param from The start node
+     * @param type Type of the relationship
+     * @param to The end node
+     * @param properties Properties of the relationship
+     * @return The relationship
+     */
+    public GraphRelationship createRelationship(GraphNode from, String type, GraphNode to, Map<String, Object> properties) {
+        GraphRelationship relationship = new GraphRelationship(from, type, to, properties);
+        from.outgoing.add(relationship);
+        to.incoming.add(relationship);
+
+        undo(() -> {
+            from.outgoing.remove(relationship);
+            to.incoming.remove(relationship);
+        });
+        return relationship;
+    }
+
+    /**
+     * Delete a relationship
+     * @param relationship The relationship
+     */
+    public void deleteRelationship(GraphRelationship relationship) {
+        relationship.getFrom().outgoing.remove(relationship);
+        relationship.getTo().incoming.remove(relationship);
+
+        undo(() -> {
+            relationship.getFrom().outgoing.add(relationship);
+            relationship.getTo().incoming.add(relationship);
+        });
+    }
+
+    /**
+     * Find a node by its label and name
+     * @param label Label of the node
+     * @param name Name of the node
+     * @return The node or null
+     */
+    public GraphNode findNode(String label, Object name) {
+        LinkedHashMap<Object, GraphNode> byName = nodesByName.get(label);
+        return byName == null ? null : byName.get(name);
+    }
+
+    /**
+     * Get all nodes of a label in the order of their creation
+     * @param label Label of the nodes
+     * @return The nodes
+     */
+    public Collection<GraphNode> getNodes(String label) {
+        LinkedHashMap<Object, GraphNode> byName = nodesByName.get(label);
+        return byName == null ? Collections.emptyList() : byName.values();
+    }
+
+    /**
+     * Get all nodes in the order of their creation
+     * @return The nodes
+     */
+    public Collection<GraphNode> getNodes() {
+        return nodes.values();
+    }
+
+    /**
+     * Get the relationships of a type that start at a node
+     * @param node The start node
+     * @param type Type of the relationships
+     * @return The relationships
+     */
+    public ArrayList<GraphRelationship> outgoing(GraphNode node, String type) {
+        ArrayList<GraphRelationship> relationships = new ArrayList<>();
+        for (GraphRelationship relationship : node.outgoing) {
+            if (relationship.getType().equals(type))
+                relationships.add(relationship);
+        }
+        return relationships;
+    }
+
+    /**
+     * Get the relationships of a type that end at a node
+     * @param node The end node
+     * @param type Type of the relationships
+     * @return The relationships
+     */
+    public ArrayList<GraphRelationship> incoming(GraphNode node, String type) {
+        ArrayList<GraphRelationship> relationships = new ArrayList<>();
+        for (GraphRelationship relationship : node.incoming) {
+            if (relationship.getType().equals(type))
+                relationships.add(relationship);
+        }
+        return relationships;
+    }
+
+    public int size() {
+        return nodes.size();
+    }
+
+    /**
+     * Remember how to revert a change of the running write transaction
+     * @param action Reverts the change
+     */
+    private void undo(Runnable action) {
+        if (undoLog == null)
+            throw new IllegalStateException("The graph can only be changed in a write transaction");
+        undoLog.add(action);
+    }
+}
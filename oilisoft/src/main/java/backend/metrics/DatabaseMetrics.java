@@ -0,0 +1,358 @@
+package backend.metrics;
+
+import backend.entities.CypherQuery;
+import org.neo4j.driver.ConnectionPoolMetrics;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Registry of the QueryStats of a DatabaseManagement.
+ * Queries are grouped by the name of the method that built them (see CypherQuery.named()),
+ * unnamed queries by their text with collapsed whitespace. All statistics are published as MBeans
+ * under the domain "oilisoft", every DatabaseMetrics with its own instance number,
+ * and can be written to the log periodically.
+ * @author Louis Wendler
+ * @since 1.0
+ * @version 1.0
+ */
+public class DatabaseMetrics implements DatabaseMetricsMBean {
+
+    /**
+     * Number of query shapes that are tracked, further shapes are counted as OTHER_QUERIES
+     */
+    public static final int MAX_QUERY_SHAPES = 256;
+    public static final String OTHER_QUERIES = "(other)";
+
+    private static final AtomicInteger INSTANCES = new AtomicInteger();
+
+    private final String database;
+    private final int instance;
+    private final Supplier<Collection<ConnectionPoolMetrics>> poolMetrics;
+    private final ConcurrentHashMap<String, QueryStats> queryStats;
+    private final ConcurrentHashMap<String, String> shapes;
+
+    private MBeanServer mBeanServer;
+    private ScheduledExecutorService logger;
+
+    /**
+     * Create empty DatabaseMetrics
+     * @param database Name of the database in the MBean names (e.g. its URI)
+     * @param poolMetrics Supplies the driver's connection pool metrics, empty if not available
+     */
+    public DatabaseMetrics(String database, Supplier<Collection<ConnectionPoolMetrics>> poolMetrics) {
+        this.database = database;
+        this.instance = INSTANCES.incrementAndGet();
+        this.poolMetrics = poolMetrics;
+
+        queryStats = new ConcurrentHashMap<>();
+        shapes = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * Get the statistics of a query's shape
+     * @param cypherQuery The query
+     * @return QueryStats of its name or, if unnamed, its text
+     */
+    public QueryStats stats(CypherQuery cypherQuery) {
+        return stats(shape(cypherQuery));
+    }
+
+    /**
+     * Get the statistics of a transaction that runs several queries
+     * @param cypherQueries The queries of the transaction
+     * @return QueryStats of their names joined by "+", each name once
+     */
+    public QueryStats stats(List<CypherQuery> cypherQueries) {
+        LinkedHashSet<String> names = new LinkedHashSet<>();
+        for (CypherQuery cypherQuery : cypherQueries) {
+            names.add(shape(cypherQuery));
+        }
+        return stats(String.join("+", names));
+    }
+
+    /**
+     * Get the shape of a query, the whitespace of unnamed query texts is collapsed once per text
+     * @param cypherQuery The query
+     * @return Its name or its collapsed text
+     */
+    private String shape(CypherQuery cypherQuery) {
+        if (cypherQuery.getName() != null)
+            return cypherQuery.getName();
+
+        String text = cypherQuery.getText();
+        String shape = shapes.get(text);
+        if (shape != null)
+            return shape;
+
+        shape = collapseWhitespace(text);
+        synchronized (shapes) {
+            if (shapes.size() < MAX_QUERY_SHAPES)
+                shapes.putIfAbsent(text, shape);
+        }
+        return shape;
+    }
+
+    private static String collapseWhitespace(String text) {
+        StringBuilder collapsed = new StringBuilder(text.length());
+        boolean space = false;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (Character.isWhitespace(c)) {
+                space = collapsed.length() > 0;
+                continue;
+            }
+            if (space)
+                collapsed.append(' ');
+            collapsed.append(c);
+            space = false;
+        }
+        return collapsed.toString();
+    }
+
+    private QueryStats stats(String name) {
+        QueryStats stats = queryStats.get(name);
+        if (stats != null)
+            return stats;
+
+        // Checking the limit and adding a shape must not interleave, or more shapes than the limit are tracked
+        synchronized (queryStats) {
+            stats = queryStats.get(name);
+            if (stats != null)
+                return stats;
+
+            if (queryStats.size() >= MAX_QUERY_SHAPES - 1 && !name.equals(OTHER_QUERIES))
+                return stats(OTHER_QUERIES);
+
+            stats = new QueryStats(name);
+            queryStats.put(name, stats);
+            register(stats, queryObjectName(name));
+            return stats;
+        }
+    }
+
+    /**
+     * Publish the metrics via JMX and start writing them to the log
+     * @param logPeriod Seconds between two log dumps, 0 to never write to the log
+     */
+    public synchronized void start(long logPeriod) {
+        if (mBeanServer != null)
+            return;
+
+        mBeanServer = ManagementFactory.getPlatformMBeanServer();
+        register(this, databaseObjectName());
+        for (QueryStats stats : queryStats.values()) {
+            register(stats, queryObjectName(stats.getName()));
+        }
+
+        if (logPeriod > 0) {
+            logger = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "oilisoft-metrics");
+                thread.setDaemon(true);
+                return thread;
+            });
+            logger.scheduleAtFixedRate(() -> System.out.println(dump()), logPeriod, logPeriod, TimeUnit.SECONDS);
+        }
+    }
+
+    /**
+     * Stop writing to the log and remove the MBeans
+     */
+    public synchronized void stop() {
+        if (mBeanServer == null)
+            return;
+
+        if (logger != null) {
+            logger.shutdownNow();
+            logger = null;
+        }
+
+        unregister(databaseObjectName());
+        for (String name : queryStats.keySet()) {
+            unregister(queryObjectName(name));
+        }
+        mBeanServer = null;
+    }
+
+    /**
+     * Register an MBean, if the metrics are published
+     * @param mBean The MBean
+     * @param objectName Its name
+     */
+    private synchronized void register(Object mBean, ObjectName objectName) {
+        if (mBeanServer == null || objectName == null)
+            return;
+
+        try {
+            mBeanServer.registerMBean(mBean, objectName);
+        } catch (JMException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Unregister an MBean
+     * @param objectName Its name
+     */
+    private void unregister(ObjectName objectName) {
+        if (objectName == null)
+            return;
+
+        try {
+            if (mBeanServer.isRegistered(objectName))
+                mBeanServer.unregisterMBean(objectName);
+        } catch (JMException e) {
+            e.printStackTrace();
+        }
+    }
+
+    private ObjectName databaseObjectName() {
+        return objectName("oilisoft:type=DatabaseManagement,name=" + ObjectName.quote(database) + ",instance=" + instance);
+    }
+
+    private ObjectName queryObjectName(String name) {
+        return objectName("oilisoft:type=Query,database=" + ObjectName.quote(database) + ",instance=" + instance
+                + ",name=" + ObjectName.quote(name));
+    }
+
+    private static ObjectName objectName(String name) {
+        try {
+            return new ObjectName(name);
+        } catch (JMException e) {
+            e.printStackTrace();
+            return null;
+        }
+    }
+
+    @Override
+    public String dump() {
+        ArrayList<QueryStats> sorted = new ArrayList<>(queryStats.values());
+        sorted.sort(Comparator.comparingDouble(QueryStats::getTotalMillis).reversed());
+
+        StringBuilder builder = new StringBuilder();
+        builder.append(String.format(
+                "Query metrics of %s: %d in flight, connections %d in use, %d idle, %d acquiring, %d acquisition timeouts%n",
+                database,
+                getInFlight(),
+                getConnectionsInUse(),
+                getConnectionsIdle(),
+                getConnectionsAcquiring(),
+                getConnectionAcquisitionTimeouts()
+        ));
+        builder.append(String.format(
+                "%-40s %8s %7s %7s %9s %10s %9s %9s %9s%n",
+                "query", "count", "errors", "retries", "rows", "total ms", "mean ms", "p95 ms", "max ms"
+        ));
+        for (QueryStats stats : sorted) {
+            String name = stats.getName();
+            if (name.length() > 40)
+                name = name.substring(0, 37) + "...";
+
+            builder.append(String.format(
+                    "%-40s %8d %7d %7d %9d %10.1f %9.2f %9.2f %9.2f%n",
+                    name,
+                    stats.getCount(),
+                    stats.getErrors(),
+                    stats.getRetries(),
+                    stats.getRows(),
+                    stats.getTotalMillis(),
+                    stats.getMeanMillis(),
+                    stats.getP95Millis(),
+                    stats.getMaxMillis()
+            ));
+        }
+        return builder.toString();
+    }
+
+    @Override
+    public void reset() {
+        for (QueryStats stats : queryStats.values()) {
+            stats.reset();
+        }
+    }
+
+    public Collection<QueryStats> getQueryStats() {
+        return queryStats.values();
+    }
+
+    @Override
+    public int getQueryShapes() {
+        return queryStats.size();
+    }
+
+    @Override
+    public long getQueries() {
+        long queries = 0;
+        for (QueryStats stats : queryStats.values()) {
+            queries += stats.getCount();
+        }
+        return queries;
+    }
+
+    @Override
+    public long getErrors() {
+        long errors = 0;
+        for (QueryStats stats : queryStats.values()) {
+            errors += stats.getErrors();
+        }
+        return errors;
+    }
+
+    @Override
+    public int getInFlight() {
+        int inFlight = 0;
+        for (QueryStats stats : queryStats.values()) {
+            inFlight += stats.getInFlight();
+        }
+        return inFlight;
+    }
+
+    @Override
+    public int getConnectionsInUse() {
+        int inUse = 0;
+        for (ConnectionPoolMetrics pool : poolMetrics.get()) {
+            inUse += pool.inUse();
+        }
+        return inUse;
+    }
+
+    @Override
+    public int getConnectionsIdle() {
+        int idle = 0;
+        for (ConnectionPoolMetrics pool : poolMetrics.get()) {
+            idle += pool.idle();
+        }
+        return idle;
+    }
+
+    @Override
+    public int getConnectionsAcquiring() {
+        int acquiring = 0;
+        for (ConnectionPoolMetrics pool : poolMetrics.get()) {
+            acquiring += pool.acquiring();
+        }
+        return acquiring;
+    }
+
+    @Override
+    public long getConnectionAcquisitionTimeouts() {
+        long timeouts = 0;
+        for (ConnectionPoolMetrics pool : poolMetrics.get()) {
+            timeouts += pool.timedOutToAcquire();
+        }
+        return timeouts;
+    }
+}
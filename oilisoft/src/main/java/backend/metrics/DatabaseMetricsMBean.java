@@ -0,0 +1,37 @@
+package backend.metrics;
+
+/**
+ * JMX view of the query and connection pool statistics of a DatabaseManagement
+ * @author Louis Wendler
+ * @since 1.0
+ * @version 1.0
+ */
+public interface DatabaseMetricsMBean {
+
+    int getQueryShapes();
+
+    long getQueries();
+
+    long getErrors();
+
+    int getInFlight();
+
+    int getConnectionsInUse();
+
+    int getConnectionsIdle();
+
+    int getConnectionsAcquiring();
+
+    long getConnectionAcquisitionTimeouts();
+
+    /**
+     * Describe all query shapes as a table, the most expensive first
+     * @return The table as text
+     */
+    String dump();
+
+    /**
+     * Start counting all query shapes from zero
+     */
+    void reset();
+}
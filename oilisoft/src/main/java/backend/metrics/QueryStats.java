@@ -0,0 +1,205 @@
+package backend.metrics;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Statistics of one query shape: number of runs, errors, retries, rows and a latency histogram.
+ * The latencies are counted in buckets of powers of two microseconds,
+ * so recording is lock free and needs no memory per run.
+ * @author Louis Wendler
+ * @since 1.0
+ * @version 1.0
+ */
+public class QueryStats implements QueryStatsMBean {
+
+    private static final int BUCKETS = 32;
+
+    private final String name;
+
+    private final AtomicLong count;
+    private final AtomicLong errors;
+    private final AtomicLong retries;
+    private final AtomicLong rows;
+    private final AtomicInteger inFlight;
+    private final AtomicLong totalNanos;
+    private final AtomicLong maxNanos;
+    private final AtomicLongArray histogram;
+
+    /**
+     * Create empty QueryStats
+     * @param name Name of the query shape
+     */
+    public QueryStats(String name) {
+        this.name = name;
+
+        count = new AtomicLong();
+        errors = new AtomicLong();
+        retries = new AtomicLong();
+        rows = new AtomicLong();
+        inFlight = new AtomicInteger();
+        totalNanos = new AtomicLong();
+        maxNanos = new AtomicLong();
+        histogram = new AtomicLongArray(BUCKETS);
+    }
+
+    /**
+     * Record that a query has been sent to the database
+     * @return Start time that has to be passed to stop()
+     */
+    public long start() {
+        inFlight.incrementAndGet();
+        return System.nanoTime();
+    }
+
+    /**
+     * Record that a query has finished, including all of its retries
+     * @param start Start time returned by start()
+     * @param rowCount Number of records that have been received
+     * @param failed True if the query finally failed
+     */
+    public void stop(long start, long rowCount, boolean failed) {
+        long nanos = System.nanoTime() - start;
+        inFlight.decrementAndGet();
+
+        count.incrementAndGet();
+        if (failed)
+            errors.incrementAndGet();
+        rows.addAndGet(rowCount);
+        totalNanos.addAndGet(nanos);
+        maxNanos.accumulateAndGet(nanos, Math::max);
+        histogram.incrementAndGet(bucketOf(nanos));
+    }
+
+    /**
+     * Record that an attempt of a query failed transiently and is run again
+     */
+    public void retried() {
+        retries.incrementAndGet();
+    }
+
+    /**
+     * Compute the histogram bucket of a latency
+     * @param nanos Latency in nanoseconds
+     * @return Index of the bucket
+     */
+    private static int bucketOf(long nanos) {
+        long micros = Math.max(1, TimeUnit.NANOSECONDS.toMicros(nanos));
+        return Math.min(BUCKETS - 1, 63 - Long.numberOfLeadingZeros(micros));
+    }
+
+    /**
+     * Estimate a percentile of the latency from the histogram
+     * @param percentile The percentile between 0 and 1
+     * @return Upper bound of the bucket that contains the percentile (at most the maximum) in milliseconds
+     */
+    private double percentileMillis(double percentile) {
+        long[] buckets = getLatencyHistogram();
+        long total = 0;
+        for (long bucket : buckets) {
+            total += bucket;
+        }
+        if (total == 0)
+            return 0;
+
+        long rank = (long) Math.ceil(percentile * total);
+        long seen = 0;
+        for (int i = 0; i < buckets.length; i++) {
+            seen += buckets[i];
+            if (seen >= rank)
+                return Math.min((1L << (i + 1)) / 1000.0, getMaxMillis());
+        }
+        return getMaxMillis();
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public long getCount() {
+        return count.get();
+    }
+
+    @Override
+    public long getErrors() {
+        return errors.get();
+    }
+
+    @Override
+    public double getErrorRate() {
+        long queries = count.get();
+        return queries == 0 ? 0 : (double) errors.get() / queries;
+    }
+
+    @Override
+    public long getRetries() {
+        return retries.get();
+    }
+
+    @Override
+    public long getRows() {
+        return rows.get();
+    }
+
+    @Override
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    @Override
+    public double getTotalMillis() {
+        return totalNanos.get() / 1e6;
+    }
+
+    @Override
+    public double getMeanMillis() {
+        long queries = count.get();
+        return queries == 0 ? 0 : getTotalMillis() / queries;
+    }
+
+    @Override
+    public double getMaxMillis() {
+        return maxNanos.get() / 1e6;
+    }
+
+    @Override
+    public double getP50Millis() {
+        return percentileMillis(0.50);
+    }
+
+    @Override
+    public double getP95Millis() {
+        return percentileMillis(0.95);
+    }
+
+    @Override
+    public double getP99Millis() {
+        return percentileMillis(0.99);
+    }
+
+    @Override
+    public long[] getLatencyHistogram() {
+        long[] buckets = new long[BUCKETS];
+        for (int i = 0; i < BUCKETS; i++) {
+            buckets[i] = histogram.get(i);
+        }
+        return buckets;
+    }
+
+    @Override
+    public void reset() {
+        count.set(0);
+        errors.set(0);
+        retries.set(0);
+        rows.set(0);
+        totalNanos.set(0);
+        maxNanos.set(0);
+        for (int i = 0; i < BUCKETS; i++) {
+            histogram.set(i, 0);
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package backend.metrics;
+
+/**
+ * JMX view of the statistics of one query shape
+ * @author Louis Wendler
+ * @since 1.0
+ * @version 1.0
+ */
+public interface QueryStatsMBean {
+
+    String getName();
+
+    long getCount();
+
+    long getErrors();
+
+    double getErrorRate();
+
+    long getRetries();
+
+    long getRows();
+
+    int getInFlight();
+
+    double getTotalMillis();
+
+    double getMeanMillis();
+
+    double getMaxMillis();
+
+    double getP50Millis();
+
+    double getP95Millis();
+
+    double getP99Millis();
+
+    /**
+     * Get the latency histogram
+     * @return Number of queries per bucket, bucket i counts latencies below 2^(i+1) microseconds
+     */
+    long[] getLatencyHistogram();
+
+    /**
+     * Start counting from zero
+     */
+    void reset();
+}
@@ -0,0 +1,179 @@
+package backend.replay;
+
+import backend.DatabaseAccess;
+import backend.DatabaseAccessException;
+import backend.RecordVisitor;
+import backend.entities.CypherQuery;
+import backend.metrics.DatabaseMetrics;
+import org.neo4j.driver.Record;
+
+import java.io.BufferedOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletionStage;
+import java.util.function.Function;
+
+/**
+ * Records every successful query of a DatabaseAccess with its records into a file
+ * The recording can be replayed by the QueryReplayer without the database.
+ * The queries of one transaction are recorded as one batch, so they are replayed in one transaction as well.
+ * @author Louis Wendler
+ * @since 1.0
+ * @version 1.0
+ */
+public class QueryRecorder implements DatabaseAccess {
+
+    private final DatabaseAccess database;
+    private final ObjectOutputStream recording;
+
+    /**
+     * Create a QueryRecorder
+     * @param database The DatabaseAccess whose queries are recorded
+     * @param file Path of the recording, an existing file is overwritten
+     * @throws IOException If the file can't be written
+     */
+    public QueryRecorder(DatabaseAccess database, String file) throws IOException {
+        this.database = database;
+        FileOutputStream output = new FileOutputStream(file);
+        try {
+            recording = new ObjectOutputStream(new BufferedOutputStream(output));
+        } catch (IOException e) {
+            output.close();
+            throw e;
+        }
+    }
+
+    @Override
+    public void verifyConnectivity() {
+        database.verifyConnectivity();
+    }
+
+    /**
+     * Close the recording and the recorded DatabaseAccess
+     * @throws DatabaseAccessException If the recording could not be completed
+     */
+    @Override
+    public void close() {
+        try {
+            synchronized (recording) {
+                recording.close();
+            }
+        } catch (IOException e) {
+            throw new DatabaseAccessException("Recording could not be closed", e);
+        } finally {
+            database.close();
+        }
+    }
+
+    @Override
+    public ArrayList<Record> writeTx(CypherQuery cypherQuery) {
+        long started = System.nanoTime();
+        ArrayList<Record> records = database.writeTx(cypherQuery);
+        record(cypherQuery, true, records, started);
+        return records;
+    }
+
+    @Override
+    public ArrayList<ArrayList<Record>> writeTx(List<CypherQuery> cypherQueries) {
+        long started = System.nanoTime();
+        ArrayList<ArrayList<Record>> results = database.writeTx(cypherQueries);
+        record(new RecordedQuery(cypherQueries, results, System.nanoTime() - started));
+        return results;
+    }
+
+    @Override
+    public ArrayList<Record> readTx(CypherQuery cypherQuery) {
+        long started = System.nanoTime();
+        ArrayList<Record> records = database.readTx(cypherQuery);
+        record(cypherQuery, false, records, started);
+        return records;
+    }
+
+    @Override
+    public long streamWriteTx(CypherQuery cypherQuery, RecordVisitor visitor, Runnable onAttempt) {
+        long started = System.nanoTime();
+        ArrayList<Record> records = new ArrayList<>();
+        long visited = database.streamWriteTx(cypherQuery, record -> {
+            records.add(record);
+            return visitor.visit(record);
+        }, () -> {
+            records.clear();
+            if (onAttempt != null)
+                onAttempt.run();
+        });
+        record(cypherQuery, true, records, started);
+        return visited;
+    }
+
+    @Override
+    public long streamReadTx(CypherQuery cypherQuery, RecordVisitor visitor, Runnable onAttempt) {
+        long started = System.nanoTime();
+        ArrayList<Record> records = new ArrayList<>();
+        long visited = database.streamReadTx(cypherQuery, record -> {
+            records.add(record);
+            return visitor.visit(record);
+        }, () -> {
+            records.clear();
+            if (onAttempt != null)
+                onAttempt.run();
+        });
+        record(cypherQuery, false, records, started);
+        return visited;
+    }
+
+    @Override
+    public <T> CompletionStage<T> readTxAsync(CypherQuery cypherQuery, Function<List<Record>, T> mapper) {
+        long started = System.nanoTime();
+        return database.readTxAsync(cypherQuery, records -> {
+            record(cypherQuery, false, records, started);
+            return mapper.apply(records);
+        });
+    }
+
+    @Override
+    public <T> CompletionStage<T> writeTxAsync(CypherQuery cypherQuery, Function<List<Record>, T> mapper) {
+        long started = System.nanoTime();
+        return database.writeTxAsync(cypherQuery, records -> {
+            record(cypherQuery, true, records, started);
+            return mapper.apply(records);
+        });
+    }
+
+    @Override
+    public DatabaseMetrics getMetrics() {
+        return database.getMetrics();
+    }
+
+    /**
+     * Append a query to the recording
+     * @param cypherQuery CypherQuery with its bound parameters
+     * @param write True if the query ran in a write transaction
+     * @param records Records the query returned
+     * @param started Time the query was started at (System.nanoTime)
+     * @throws DatabaseAccessException If the query could not be recorded, it has been run nevertheless
+     */
+    private void record(CypherQuery cypherQuery, boolean write, List<Record> records, long started) {
+        record(new RecordedQuery(cypherQuery, write, records, System.nanoTime() - started));
+    }
+
+    /**
+     * Append a recorded query or batch to the recording
+     * @param recordedQuery The RecordedQuery
+     * @throws DatabaseAccessException If the query could not be recorded, it has been run nevertheless
+     */
+    private void record(RecordedQuery recordedQuery) {
+        synchronized (recording) {
+            try {
+                recording.writeObject(recordedQuery);
+                // Forget the written objects, the recording would hold every query in memory otherwise
+                recording.reset();
+                recording.flush();
+            } catch (IOException e) {
+                throw new DatabaseAccessException("Query could not be recorded: " + recordedQuery.key(), e);
+            }
+        }
+    }
+}
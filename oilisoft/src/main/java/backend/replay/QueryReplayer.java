@@ -0,0 +1,231 @@
+package backend.replay;
+
+import backend.DatabaseAccess;
+import backend.DatabaseAccessException;
+import backend.RecordVisitor;
+import backend.entities.CypherQuery;
+import backend.metrics.DatabaseMetrics;
+import backend.metrics.QueryStats;
+import org.neo4j.driver.Record;
+
+import java.io.BufferedInputStream;
+import java.io.EOFException;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.function.Function;
+
+/**
+ * Answers queries with the records of a recording made by the QueryRecorder
+ * Queries are recognized by their text and parameters. Repeated queries get their answers
+ * in the recorded order, once these run out the last answer is repeated.
+ * The recording can also be run against another DatabaseAccess to compare it with the recorded session.
+ * @author Louis Wendler
+ * @since 1.0
+ * @version 1.0
+ */
+public class QueryReplayer implements DatabaseAccess {
+
+    public static final String URI_SCHEME = "replay:";
+
+    private final String file;
+    private final ArrayList<RecordedQuery> queries;
+    private final HashMap<String, ArrayDeque<RecordedQuery>> answers;
+    private final DatabaseMetrics metrics;
+
+    /**
+     * Load a recording
+     * @param file Path of the recording
+     * @throws IOException If the recording can't be read
+     * @throws ClassNotFoundException If the recording is no recording of queries
+     */
+    public QueryReplayer(String file) throws IOException, ClassNotFoundException {
+        this.file = file;
+        queries = read(file);
+        answers = new HashMap<>();
+        for (RecordedQuery query : queries) {
+            answers.computeIfAbsent(query.key(), key -> new ArrayDeque<>()).add(query);
+        }
+        metrics = new DatabaseMetrics(URI_SCHEME + file, Collections::emptyList);
+    }
+
+    /**
+     * Read all queries of a recording
+     * @param file Path of the recording
+     * @return The queries in the recorded order
+     * @throws IOException If the recording can't be read
+     * @throws ClassNotFoundException If the recording is no recording of queries
+     */
+    public static ArrayList<RecordedQuery> read(String file) throws IOException, ClassNotFoundException {
+        ArrayList<RecordedQuery> queries = new ArrayList<>();
+        try (ObjectInputStream recording = new ObjectInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+            while (true) {
+                queries.add((RecordedQuery) recording.readObject());
+            }
+        } catch (EOFException e) {
+            return queries;
+        }
+    }
+
+    /**
+     * Run the queries of a recording against a database in the recorded order
+     * @param queries The recorded queries
+     * @param database The DatabaseAccess the queries are run against
+     * @return Time it took to run all queries in milliseconds
+     * @throws backend.DatabaseAccessException If a query failed
+     */
+    public static double replay(List<RecordedQuery> queries, DatabaseAccess database) {
+        long started = System.nanoTime();
+        for (RecordedQuery query : queries) {
+            if (query.isBatch())
+                database.writeTx(query.toCypherQueries());
+            else if (query.isWrite())
+                database.writeTx(query.toCypherQuery());
+            else
+                database.readTx(query.toCypherQuery());
+        }
+        return (System.nanoTime() - started) / 1e6;
+    }
+
+    @Override
+    public void verifyConnectivity() {
+    }
+
+    @Override
+    public void close() {
+    }
+
+    @Override
+    public ArrayList<Record> writeTx(CypherQuery cypherQuery) {
+        return answer(cypherQuery);
+    }
+
+    @Override
+    public ArrayList<ArrayList<Record>> writeTx(List<CypherQuery> cypherQueries) {
+        String text = "batch of " + cypherQueries.size() + " queries";
+        return recorded(RecordedQuery.key(cypherQueries), metrics.stats(cypherQueries), text).toBatchRecords();
+    }
+
+    @Override
+    public ArrayList<Record> readTx(CypherQuery cypherQuery) {
+        return answer(cypherQuery);
+    }
+
+    @Override
+    public long streamWriteTx(CypherQuery cypherQuery, RecordVisitor visitor, Runnable onAttempt) {
+        ArrayList<Record> records = answer(cypherQuery);
+        if (onAttempt != null)
+            onAttempt.run();
+        return visit(records, visitor);
+    }
+
+    @Override
+    public long streamReadTx(CypherQuery cypherQuery, RecordVisitor visitor, Runnable onAttempt) {
+        ArrayList<Record> records = answer(cypherQuery);
+        if (onAttempt != null)
+            onAttempt.run();
+        return visit(records, visitor);
+    }
+
+    @Override
+    public <T> CompletionStage<T> readTxAsync(CypherQuery cypherQuery, Function<List<Record>, T> mapper) {
+        return answerAsync(cypherQuery, mapper);
+    }
+
+    @Override
+    public <T> CompletionStage<T> writeTxAsync(CypherQuery cypherQuery, Function<List<Record>, T> mapper) {
+        return answerAsync(cypherQuery, mapper);
+    }
+
+    @Override
+    public DatabaseMetrics getMetrics() {
+        return metrics;
+    }
+
+    public ArrayList<RecordedQuery> getQueries() {
+        return queries;
+    }
+
+    private <T> CompletionStage<T> answerAsync(CypherQuery cypherQuery, Function<List<Record>, T> mapper) {
+        CompletableFuture<T> completed = new CompletableFuture<>();
+        try {
+            completed.complete(mapper.apply(answer(cypherQuery)));
+        } catch (Throwable e) {
+            completed.completeExceptionally(e);
+        }
+        return completed;
+    }
+
+    /**
+     * Find the recorded answer of a query
+     * @param cypherQuery CypherQuery with its bound parameters
+     * @return The recorded records
+     * @throws DatabaseAccessException If the query has not been recorded
+     */
+    private ArrayList<Record> answer(CypherQuery cypherQuery) {
+        return recorded(RecordedQuery.key(cypherQuery), metrics.stats(cypherQuery), cypherQuery.getText()).toRecords();
+    }
+
+    /**
+     * Find the next recorded answer of a query or batch
+     * @param key Key of the query or batch
+     * @param stats Statistics of the query or batch
+     * @param text Description of the query or batch for the exception
+     * @return The RecordedQuery that answers it
+     * @throws DatabaseAccessException If the query or batch has not been recorded
+     */
+    private RecordedQuery recorded(String key, QueryStats stats, String text) {
+        long started = stats.start();
+        RecordedQuery recordedQuery = null;
+        try {
+            synchronized (answers) {
+                ArrayDeque<RecordedQuery> recorded = answers.get(key);
+                if (recorded == null)
+                    throw new DatabaseAccessException(text,
+                            new IllegalStateException("Query has not been recorded in " + file), false, 1);
+                recordedQuery = recorded.size() > 1 ? recorded.poll() : recorded.peek();
+            }
+            return recordedQuery;
+        } finally {
+            stats.stop(started, recordedQuery == null ? 0 : recordedQuery.getRowCount(), recordedQuery == null);
+        }
+    }
+
+    private static long visit(ArrayList<Record> records, RecordVisitor visitor) {
+        long visited = 0;
+        for (Record record : records) {
+            visited++;
+            if (!visitor.visit(record))
+                break;
+        }
+        return visited;
+    }
+
+    /**
+     * Run a recording against a database and print how long it took
+     * @param args Path of the recording, URI, user name and password of the database
+     */
+    public static void main(String[] args) throws Exception {
+        if (args.length < 2) {
+            System.out.println("Usage: QueryReplayer <recording> <uri> [<user> <password>]");
+            return;
+        }
+
+        ArrayList<RecordedQuery> queries = read(args[0]);
+        String user = args.length > 2 ? args[2] : "";
+        String password = args.length > 3 ? args[3] : "";
+        try (DatabaseAccess database = DatabaseAccess.open(args[1], user, password)) {
+            database.verifyConnectivity();
+            double millis = replay(queries, database);
+            System.out.println(String.format("Replayed %d queries in %.1f ms", queries.size(), millis));
+            System.out.print(database.getMetrics().dump());
+        }
+    }
+}
@@ -0,0 +1,232 @@
+package backend.replay;
+
+import backend.entities.CypherQuery;
+import org.neo4j.driver.Record;
+import org.neo4j.driver.Value;
+import org.neo4j.driver.Values;
+import org.neo4j.driver.internal.InternalRecord;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * A query of a recorded session together with the records it returned
+ * Parameters and fields are kept as plain Java values, so a recording can be read without a database.
+ * The queries of a transaction that ran several queries are recorded as one batch of RecordedQueries.
+ * @author Louis Wendler
+ * @since 1.0
+ * @version 1.0
+ */
+public class RecordedQuery implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+    private static final String BATCH_KEY = "(batch)";
+
+    private final String name;
+    private final String text;
+    private final HashMap<String, Object> parameters;
+    private final boolean write;
+    private final ArrayList<String> keys;
+    private final ArrayList<ArrayList<Object>> rows;
+    private final long nanos;
+    private final ArrayList<RecordedQuery> batch;
+
+    /**
+     * Record a query that has been run
+     * @param cypherQuery CypherQuery with its bound parameters
+     * @param write True if the query ran in a write transaction
+     * @param records Records the query returned
+     * @param nanos Time it took to receive the records
+     */
+    public RecordedQuery(CypherQuery cypherQuery, boolean write, List<Record> records, long nanos) {
+        name = cypherQuery.getName();
+        text = cypherQuery.getText();
+        parameters = new HashMap<>();
+        for (Map.Entry<String, Object> parameter : cypherQuery.getParameters().entrySet()) {
+            parameters.put(parameter.getKey(), serializable(parameter.getValue()));
+        }
+        this.write = write;
+        this.nanos = nanos;
+
+        keys = new ArrayList<>();
+        rows = new ArrayList<>();
+        for (Record record : records) {
+            if (keys.isEmpty())
+                keys.addAll(record.keys());
+
+            ArrayList<Object> row = new ArrayList<>();
+            for (Value value : record.values()) {
+                row.add(serializable(value.asObject()));
+            }
+            rows.add(row);
+        }
+        batch = null;
+    }
+
+    /**
+     * Record the queries of a write transaction that have been committed together
+     * @param cypherQueries CypherQueries with their bound parameters in the order they ran
+     * @param results Records every query returned
+     * @param nanos Time it took to commit the transaction
+     */
+    public RecordedQuery(List<CypherQuery> cypherQueries, List<? extends List<Record>> results, long nanos) {
+        name = null;
+        text = null;
+        parameters = new HashMap<>();
+        write = true;
+        keys = new ArrayList<>();
+        rows = new ArrayList<>();
+        this.nanos = nanos;
+
+        batch = new ArrayList<>();
+        for (int i = 0; i < cypherQueries.size(); i++) {
+            batch.add(new RecordedQuery(cypherQueries.get(i), true, results.get(i), 0));
+        }
+    }
+
+    /**
+     * Copy a value into collections that can be serialized
+     * @param value Parameter or field value
+     * @return The copy
+     */
+    private static Object serializable(Object value) {
+        if (value instanceof List) {
+            ArrayList<Object> list = new ArrayList<>();
+            for (Object element : (List<?>) value) {
+                list.add(serializable(element));
+            }
+            return list;
+        }
+
+        if (value instanceof Map) {
+            LinkedHashMap<Object, Object> map = new LinkedHashMap<>();
+            for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+                map.put(entry.getKey(), serializable(entry.getValue()));
+            }
+            return map;
+        }
+
+        return value;
+    }
+
+    /**
+     * Identify a query by its text and parameters
+     * @param cypherQuery CypherQuery with its bound parameters
+     * @return Key of the query
+     */
+    public static String key(CypherQuery cypherQuery) {
+        return key(cypherQuery.getText(), cypherQuery.getParameters());
+    }
+
+    /**
+     * Identify a batch by the texts and parameters of its queries
+     * @param cypherQueries CypherQueries with their bound parameters
+     * @return Key of the batch
+     */
+    public static String key(List<CypherQuery> cypherQueries) {
+        StringBuilder key = new StringBuilder(BATCH_KEY);
+        for (CypherQuery cypherQuery : cypherQueries) {
+            key.append('\n').append(key(cypherQuery));
+        }
+        return key.toString();
+    }
+
+    private static String key(String text, Map<String, Object> parameters) {
+        return text + "\n" + new TreeMap<>(parameters);
+    }
+
+    public String key() {
+        if (batch == null)
+            return key(text, parameters);
+
+        StringBuilder key = new StringBuilder(BATCH_KEY);
+        for (RecordedQuery query : batch) {
+            key.append('\n').append(query.key());
+        }
+        return key.toString();
+    }
+
+    /**
+     * Rebuild the records the query returned
+     * @return Records as the driver returned them
+     */
+    public ArrayList<Record> toRecords() {
+        ArrayList<Record> records = new ArrayList<>();
+        for (ArrayList<Object> row : rows) {
+            Value[] fields = new Value[row.size()];
+            for (int i = 0; i < fields.length; i++) {
+                fields[i] = Values.value(row.get(i));
+            }
+            records.add(new InternalRecord(keys, fields));
+        }
+        return records;
+    }
+
+    /**
+     * Rebuild the records every query of a batch returned
+     * @return Records of every query in the recorded order
+     */
+    public ArrayList<ArrayList<Record>> toBatchRecords() {
+        ArrayList<ArrayList<Record>> results = new ArrayList<>();
+        for (RecordedQuery query : batch) {
+            results.add(query.toRecords());
+        }
+        return results;
+    }
+
+    /**
+     * Rebuild the queries of a batch
+     * @return CypherQueries with their bound parameters in the recorded order
+     */
+    public ArrayList<CypherQuery> toCypherQueries() {
+        ArrayList<CypherQuery> cypherQueries = new ArrayList<>();
+        for (RecordedQuery query : batch) {
+            cypherQueries.add(query.toCypherQuery());
+        }
+        return cypherQueries;
+    }
+
+    /**
+     * Rebuild the query
+     * @return CypherQuery with its bound parameters
+     */
+    public CypherQuery toCypherQuery() {
+        CypherQuery cypherQuery = new CypherQuery(text).named(name);
+        for (Map.Entry<String, Object> parameter : parameters.entrySet()) {
+            cypherQuery.parameter(parameter.getKey(), parameter.getValue());
+        }
+        return cypherQuery;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public boolean isWrite() {
+        return write;
+    }
+
+    public boolean isBatch() {
+        return batch != null;
+    }
+
+    public int getRowCount() {
+        if (batch == null)
+            return rows.size();
+
+        int rowCount = 0;
+        for (RecordedQuery query : batch) {
+            rowCount += query.getRowCount();
+        }
+        return rowCount;
+    }
+
+    public long getNanos() {
+        return nanos;
+    }
+}
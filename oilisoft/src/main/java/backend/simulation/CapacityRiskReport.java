@@ -0,0 +1,93 @@
+package backend.simulation;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/** Capacity-risk report of an EvacuationSimulation, the riskiest scenarios come first
+ * @author Louis Wendler
+ * @since 1.0
+ * @version 1.0
+ */
+public class CapacityRiskReport {
+
+    /**
+     * Orders scenarios from the riskiest to the safest
+     */
+    public static final Comparator<EvacuationScenario> RISKIEST_FIRST = Comparator
+            .comparing(EvacuationScenario::getRisk).reversed()
+            .thenComparing(Comparator.comparingInt(EvacuationScenario::getStrandedWorkers).reversed())
+            .thenComparing(Comparator.comparingInt(EvacuationScenario::getStrandedShips).reversed())
+            .thenComparing(Comparator.comparingInt(EvacuationScenario::getFetchingTrips).reversed())
+            .thenComparing(Comparator.comparingInt(EvacuationScenario::getWorkers).reversed());
+
+    private final int oilRigs;
+    private final ArrayList<EvacuationScenario> scenarios;
+    private final double millis;
+
+    /**
+     * Create a CapacityRiskReport
+     * @param oilRigs Number of oil rigs in the simulated fleet
+     * @param scenarios The simulated scenarios
+     * @param millis Time the simulation took
+     */
+    public CapacityRiskReport(int oilRigs, List<EvacuationScenario> scenarios, double millis) {
+        this.oilRigs = oilRigs;
+        this.scenarios = new ArrayList<>(scenarios);
+        this.scenarios.sort(RISKIEST_FIRST);
+        this.millis = millis;
+    }
+
+    /**
+     * Count the scenarios of a risk
+     * @param risk The risk
+     * @return Number of scenarios
+     */
+    public int count(EvacuationScenario.Risk risk) {
+        int count = 0;
+        for (EvacuationScenario scenario : scenarios) {
+            if (scenario.getRisk() == risk)
+                count++;
+        }
+        return count;
+    }
+
+    /**
+     * Render the report as text table
+     * @param limit Maximum number of scenarios that are listed
+     * @return The report
+     */
+    public String dump(int limit) {
+        StringBuilder text = new StringBuilder();
+        text.append(String.format("Capacity risk of %d evacuation scenarios over %d oil rigs (%.1f ms): %d high, %d medium, %d low%n",
+                scenarios.size(), oilRigs, millis,
+                count(EvacuationScenario.Risk.HIGH), count(EvacuationScenario.Risk.MEDIUM), count(EvacuationScenario.Risk.LOW)));
+        text.append(String.format("%-6s %8s %9s %8s %7s %5s %8s  %s%n",
+                "risk", "workers", "evacuated", "stranded", "ships", "trips", "fetching", "oil rigs"));
+
+        for (int i = 0; i < scenarios.size() && i < limit; i++) {
+            EvacuationScenario scenario = scenarios.get(i);
+            text.append(String.format("%-6s %8d %9d %8d %7d %5d %8d  %s%n",
+                    scenario.getRisk(),
+                    scenario.getWorkers(),
+                    scenario.getEvacuatedWorkers(),
+                    scenario.getStrandedWorkers(),
+                    scenario.getStrandedShips(),
+                    scenario.getTrips(),
+                    scenario.getFetchingTrips(),
+                    scenario.getName()));
+        }
+        if (scenarios.size() > limit)
+            text.append(String.format("... %d more scenarios%n", scenarios.size() - limit));
+
+        return text.toString();
+    }
+
+    public ArrayList<EvacuationScenario> getScenarios() {
+        return scenarios;
+    }
+
+    public double getMillis() {
+        return millis;
+    }
+}
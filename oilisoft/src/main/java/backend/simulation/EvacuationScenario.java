@@ -0,0 +1,101 @@
+package backend.simulation;
+
+import backend.entities.OilRig;
+import backend.fleet.EvacuationMove;
+import backend.fleet.EvacuationPlan;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/** Outcome of evacuating one or several oil rigs at once, as planned by the EvacuationPlanner
+ * @author Louis Wendler
+ * @since 1.0
+ * @version 1.0
+ */
+public class EvacuationScenario {
+
+    /**
+     * How likely an evacuation fails for lack of capacity
+     * LOW: the ships of the evacuated oil rigs suffice,
+     * MEDIUM: ships of other oil rigs have to fetch evacuees,
+     * HIGH: workers or ships are stranded
+     */
+    public enum Risk { LOW, MEDIUM, HIGH }
+
+    private final ArrayList<OilRig> oilRigs;
+    private int workers;
+    private int evacuatedWorkers;
+    private int strandedWorkers;
+    private int strandedShips;
+    private int trips;
+    private int fetchingTrips;
+
+    /**
+     * Summarize the plans of a scenario
+     * @param plans The EvacuationPlans of all oil rigs that are evacuated at once
+     */
+    public EvacuationScenario(List<EvacuationPlan> plans) {
+        oilRigs = new ArrayList<>();
+        for (EvacuationPlan plan : plans) {
+            oilRigs.add(plan.getOilRig());
+            workers += Math.max(0, plan.getOilRig().getNumberWorkers());
+            evacuatedWorkers += plan.getEvacuatedWorkers();
+            strandedWorkers += plan.getStrandedWorkers();
+            strandedShips += plan.getStrandedShips().size();
+
+            for (EvacuationMove move : plan.getMoves()) {
+                trips++;
+                if (!move.isShipMoved())
+                    fetchingTrips++;
+            }
+        }
+    }
+
+    public Risk getRisk() {
+        if (strandedWorkers > 0 || strandedShips > 0)
+            return Risk.HIGH;
+        return fetchingTrips > 0 ? Risk.MEDIUM : Risk.LOW;
+    }
+
+    /**
+     * Get the names of the evacuated oil rigs
+     * @return The names joined by " + "
+     */
+    public String getName() {
+        StringBuilder name = new StringBuilder();
+        for (OilRig oilRig : oilRigs) {
+            if (name.length() > 0)
+                name.append(" + ");
+            name.append(oilRig.getName());
+        }
+        return name.toString();
+    }
+
+    public ArrayList<OilRig> getOilRigs() {
+        return oilRigs;
+    }
+
+    public int getWorkers() {
+        return workers;
+    }
+
+    public int getEvacuatedWorkers() {
+        return evacuatedWorkers;
+    }
+
+    public int getStrandedWorkers() {
+        return strandedWorkers;
+    }
+
+    public int getStrandedShips() {
+        return strandedShips;
+    }
+
+    public int getTrips() {
+        return trips;
+    }
+
+    public int getFetchingTrips() {
+        return fetchingTrips;
+    }
+}
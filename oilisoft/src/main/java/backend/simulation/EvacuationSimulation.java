@@ -0,0 +1,181 @@
+package backend.simulation;
+
+import backend.DatabaseAccess;
+import backend.entities.OilRig;
+import backend.fleet.EvacuationPlanner;
+import backend.fleet.Fleet;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/** Headless what-if simulation of evacuations over a whole fleet
+ * Every oil rig is evacuated on its own, then combinations of the riskiest oil rigs are evacuated at once.
+ * The scenarios are planned in parallel on a fork-join pool over one immutable Fleet snapshot.
+ * Every setting can be overridden by the system property named in the comment of its default.
+ * @author Louis Wendler
+ * @since 1.0
+ * @version 1.0
+ */
+public class EvacuationSimulation {
+
+    public static final int DEFAULT_PARALLELISM = Runtime.getRuntime().availableProcessors(); // oilisoft.simulation.parallelism
+    public static final int DEFAULT_COMBINATION_SIZE = 2;       // oilisoft.simulation.combinationSize (1 = single oil rigs only)
+    public static final int DEFAULT_RISKIEST_OIL_RIGS = 32;     // oilisoft.simulation.riskiestOilRigs
+    public static final int DEFAULT_REPORT_LIMIT = 50;          // oilisoft.simulation.reportLimit
+
+    private static final int SCENARIOS_PER_TASK = 16;
+
+    private final Fleet fleet;
+    private final EvacuationPlanner planner;
+    private final int parallelism;
+    private final int combinationSize;
+    private final int riskiestOilRigs;
+
+    /**
+     * Create an EvacuationSimulation with the settings of the system properties
+     * @param fleet The fleet snapshot
+     */
+    public EvacuationSimulation(Fleet fleet) {
+        this(
+                fleet,
+                Integer.getInteger("oilisoft.simulation.parallelism", DEFAULT_PARALLELISM),
+                Integer.getInteger("oilisoft.simulation.combinationSize", DEFAULT_COMBINATION_SIZE),
+                Integer.getInteger("oilisoft.simulation.riskiestOilRigs", DEFAULT_RISKIEST_OIL_RIGS)
+        );
+    }
+
+    /**
+     * Create an EvacuationSimulation
+     * @param fleet The fleet snapshot
+     * @param parallelism Number of threads that plan scenarios
+     * @param combinationSize Maximum number of oil rigs that are evacuated at once
+     * @param riskiestOilRigs Number of riskiest single oil rigs that are combined
+     */
+    public EvacuationSimulation(Fleet fleet, int parallelism, int combinationSize, int riskiestOilRigs) {
+        this.fleet = fleet;
+        this.planner = new EvacuationPlanner(this.fleet);
+        this.parallelism = Math.max(1, parallelism);
+        this.combinationSize = combinationSize;
+        this.riskiestOilRigs = riskiestOilRigs;
+    }
+
+    /**
+     * Simulate all scenarios
+     * @return The CapacityRiskReport
+     */
+    public CapacityRiskReport run() {
+        long started = System.nanoTime();
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            ArrayList<List<OilRig>> singles = new ArrayList<>();
+            for (OilRig oilRig : fleet.getOilRigs()) {
+                singles.add(Collections.singletonList(oilRig));
+            }
+            ArrayList<EvacuationScenario> scenarios = pool.invoke(new SimulationTask(singles, 0, singles.size()));
+
+            if (combinationSize > 1) {
+                ArrayList<EvacuationScenario> riskiest = new ArrayList<>(scenarios);
+                riskiest.sort(CapacityRiskReport.RISKIEST_FIRST);
+
+                ArrayList<OilRig> oilRigs = new ArrayList<>();
+                for (int i = 0; i < riskiest.size() && i < riskiestOilRigs; i++) {
+                    oilRigs.add(riskiest.get(i).getOilRigs().get(0));
+                }
+
+                ArrayList<List<OilRig>> combinations = new ArrayList<>();
+                for (int size = 2; size <= combinationSize; size++) {
+                    combine(oilRigs, size, 0, new ArrayList<>(), combinations);
+                }
+                scenarios.addAll(pool.invoke(new SimulationTask(combinations, 0, combinations.size())));
+            }
+
+            return new CapacityRiskReport(fleet.size(), scenarios, (System.nanoTime() - started) / 1e6);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Collect all combinations of a number of oil rigs
+     * @param oilRigs The oil rigs that are combined
+     * @param size Number of oil rigs per combination
+     * @param first Index of the first oil rig that may be added
+     * @param combination The combination so far
+     * @param combinations Receives the complete combinations
+     */
+    private static void combine(List<OilRig> oilRigs, int size, int first, ArrayList<OilRig> combination, List<List<OilRig>> combinations) {
+        if (combination.size() == size) {
+            combinations.add(new ArrayList<>(combination));
+            return;
+        }
+
+        for (int i = first; i <= oilRigs.size() - (size - combination.size()); i++) {
+            combination.add(oilRigs.get(i));
+            combine(oilRigs, size, i + 1, combination, combinations);
+            combination.remove(combination.size() - 1);
+        }
+    }
+
+    /**
+     * Plans a range of scenarios, large ranges are split in halves that are planned in parallel
+     */
+    private class SimulationTask extends RecursiveTask<ArrayList<EvacuationScenario>> {
+
+        private static final long serialVersionUID = 1L;
+
+        private final List<List<OilRig>> scenarios;
+        private final int from;
+        private final int to;
+
+        private SimulationTask(List<List<OilRig>> scenarios, int from, int to) {
+            this.scenarios = scenarios;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected ArrayList<EvacuationScenario> compute() {
+            if (to - from <= SCENARIOS_PER_TASK) {
+                ArrayList<EvacuationScenario> results = new ArrayList<>();
+                for (int i = from; i < to; i++) {
+                    results.add(new EvacuationScenario(planner.plan(scenarios.get(i))));
+                }
+                return results;
+            }
+
+            int middle = (from + to) >>> 1;
+            SimulationTask left = new SimulationTask(scenarios, from, middle);
+            left.fork();
+            ArrayList<EvacuationScenario> right = new SimulationTask(scenarios, middle, to).compute();
+
+            ArrayList<EvacuationScenario> results = left.join();
+            results.addAll(right);
+            return results;
+        }
+    }
+
+    /**
+     * Simulate the evacuations of a fleet and print the capacity-risk report
+     * The simulation is shaped by the oilisoft.simulation.* system properties
+     * @param args URI, user name and password of the database
+     */
+    public static void main(String[] args) throws Exception {
+        if (args.length < 1) {
+            System.out.println("Usage: EvacuationSimulation <uri> [<user> <password>]");
+            return;
+        }
+
+        String user = args.length > 1 ? args[1] : "";
+        String password = args.length > 2 ? args[2] : "";
+        try (DatabaseAccess man = DatabaseAccess.open(args[0], user, password)) {
+            man.verifyConnectivity();
+            Fleet fleet = Fleet.fromRecords(man.readTx(OilRig.cypherMatchFleet()));
+
+            CapacityRiskReport report = new EvacuationSimulation(fleet).run();
+            System.out.print(report.dump(Integer.getInteger("oilisoft.simulation.reportLimit", DEFAULT_REPORT_LIMIT)));
+        }
+    }
+}
@@ -1,9 +1,18 @@
 package frontend;
 
-import backend.DatabaseManagement;
+import backend.DatabaseAccess;
+import backend.DatabaseAccessException;
+import backend.databases.DatabaseSchema;
 import backend.databases.ExampleDatabase;
 import backend.entities.*;
+import backend.fleet.EvacuationMove;
+import backend.fleet.EvacuationPlan;
+import backend.fleet.EvacuationPlanner;
+import backend.fleet.Fleet;
+import backend.fleet.FleetStore;
 import frontend.forms.*;
+import frontend.labels.IconCache;
+import frontend.labels.LabelIndex;
 import frontend.labels.NodeLabel;
 import frontend.labels.OilRigLabel;
 import frontend.labels.ShipLabel;
@@ -17,10 +26,16 @@ import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
 import java.awt.event.MouseAdapter;
 import java.awt.event.MouseEvent;
-import java.io.IOException;
+import java.awt.event.WindowAdapter;
+import java.awt.event.WindowEvent;
 import java.util.*;
+import java.util.List;
 import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.ExecutionException;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * User interface
@@ -34,6 +49,7 @@ public class UI extends MouseAdapter implements ActionListener {
     private final ImageIcon SMALL_SHIP_ICON;
     private final ImageIcon BIG_SHIP_ICON;
     private final ImageIcon WORKER_ICON;
+    private final IconCache iconCache;
 
     private final int SMALL_IMAGE_WIDTH = 45;
     private final int SMALL_IMAGE_HEIGHT = 45;
@@ -42,9 +58,16 @@ public class UI extends MouseAdapter implements ActionListener {
 
     private Point mouseOffset;
 
-    private DatabaseManagement man;
-    private HashMap<OilRig, ArrayList<Ship>> map;
-    private ArrayList<NodeLabel> nodeLabelArrayList;
+    private DatabaseAccess man;
+    private final ExecutorService databaseExecutor;
+    private final AtomicLong refreshGeneration;
+    private final AtomicLong queuedWrites;
+    private final FleetStore fleetStore;
+    private LabelIndex labelIndex;
+    private NodeLabel highlightedLabel;
+    private HashMap<String, OilRigLabel> oilRigLabels;
+    private HashMap<String, ShipLabel> shipLabels;
+    private ArrayList<WorkersLabel> workersLabels;
 
     private final Dimension screenSize;
     private JLayeredPane pane;
@@ -58,6 +81,17 @@ public class UI extends MouseAdapter implements ActionListener {
         SMALL_SHIP_ICON = new ImageIcon("resources/smallShip.png");
         BIG_SHIP_ICON = new ImageIcon("resources/bigShip.png");
         WORKER_ICON = new ImageIcon("resources/worker.png");
+        iconCache = new IconCache();
+
+        // All database work runs in order on one thread, off the event dispatch thread
+        databaseExecutor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "oilisoft-database");
+            thread.setDaemon(true);
+            return thread;
+        });
+        refreshGeneration = new AtomicLong();
+        queuedWrites = new AtomicLong();
+        fleetStore = new FleetStore(new Fleet());
 
         pane = new JLayeredPane();
         screenSize = Toolkit.getDefaultToolkit().getScreenSize();
@@ -67,10 +101,23 @@ public class UI extends MouseAdapter implements ActionListener {
         frame.setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
         frame.addMouseListener(this);
         frame.setIconImage(new ImageIcon("resources/icon.png").getImage());
+        // The database driver lives as long as the map, release its pool on exit
+        frame.addWindowListener(new WindowAdapter() {
+            @Override
+            public void windowClosing(WindowEvent e) {
+                databaseExecutor.shutdownNow();
+                try {
+                    if (man != null)
+                        man.close();
+                } catch (DatabaseAccessException ex) {
+                    ex.printStackTrace();
+                }
+            }
+        });
     }
 
     /**
-     * Initialize and structure the Nodes, NodeLabels
+     * Connect to the database, create its schema if missing and load the fleet, the NodeLabels are created by display()
      * @param uri The URI to the database
      * @param userName The user name to access the database
      * @param password Password to authenticate at the database
@@ -78,55 +125,45 @@ public class UI extends MouseAdapter implements ActionListener {
      */
     public boolean init(String uri, String userName, String password) {
         try {
-            man = new DatabaseManagement(uri, userName, password);
-            initNodeLabels(pane);
-            man.close();
-        } catch (IOException e) {
-            e.printStackTrace();
+            man = DatabaseAccess.open(uri, userName, password);
+            man.verifyConnectivity();
+            new DatabaseSchema(man);
+            fleetStore.publish(loadFleet().toCompletableFuture().join());
         } catch (Exception e) {
             e.printStackTrace();
+            release();
             return false;
         }
         return true;
     }
 
     /**
-     * Initialize and structure the Nodes and NodeLabels
-     * @param pane Add the NodeLabels to pane
+     * Release the database access, the database executor and the frame of a UI that failed to initialize,
+     * so every failed login attempt leaves nothing behind
      */
-    private void initNodeLabels(JLayeredPane pane) {
-        nodeLabelArrayList = new ArrayList<>();
-        map = new HashMap<>();
-
-        // Get the oil rigs out of the database
-        ArrayList<Record> oilRigRecords = man.writeTx(cypherOilRigs());
-        for (Record oilRigRecord : oilRigRecords) {
-            String oilRigName = oilRigRecord.get("o.name").asString();
-            int initNumberWorkers = oilRigRecord.get("o.initNumberWorkers").asInt();
-            int initNumberSmallShips = oilRigRecord.get("o.initNumberSmallShips").asInt();
-            int initNumberBigShips = oilRigRecord.get("o.initNumberBigShips").asInt();
-            // Create corresponding oil rig nodes
-            OilRig oilRig = new OilRig(
-                    oilRigName,
-                    initNumberWorkers,
-                    initNumberSmallShips,
-                    initNumberBigShips
-            );
-            setOilRigStats(oilRig);
-
-            // Get the ships that anchor on the oil rig
-            ArrayList<Ship> ships = new ArrayList<>();
-            ArrayList<Record> shipRecords = man.writeTx(oilRig.cypherMatchShips());
-            for (Record shipRecord : shipRecords) {
-                String shipName = shipRecord.get("Ship.name").asString();
-                int maxCapacity = shipRecord.get("Ship.maxCapacity").asInt();
-                // Create corresponding ship nodes
-                Ship ship = new Ship(shipName, maxCapacity);
-                setShipStats(ship);
-                ships.add(ship);
+    private void release() {
+        databaseExecutor.shutdownNow();
+        if (man != null) {
+            try {
+                man.close();
+            } catch (DatabaseAccessException e) {
+                e.printStackTrace();
             }
-            map.put(oilRig, ships);
+            man = null;
         }
+        SwingUtilities.invokeLater(frame::dispose);
+    }
+
+    /**
+     * Structure the Nodes and initialize their NodeLabels, must run on the event dispatch thread
+     * @param pane Add the NodeLabels to pane
+     * @param loadedFleet The oil rigs and the ships that anchor on them
+     */
+    private void initNodeLabels(JLayeredPane pane, Fleet loadedFleet) {
+        labelIndex = new LabelIndex(BIG_IMAGE_WIDTH);
+        oilRigLabels = new HashMap<>();
+        shipLabels = new HashMap<>();
+        workersLabels = new ArrayList<>();
 
         Point mapPaneCenter = new Point(
                 pane.getPreferredSize().width/2,
@@ -136,12 +173,12 @@ public class UI extends MouseAdapter implements ActionListener {
         ArrayList<Point> oilRigLabelPositions = computeLabelPoints(
                 mapPaneCenter,
                 pane.getPreferredSize().width/3.3,
-                map.keySet().size()
+                loadedFleet.size()
         );
 
         int i = 0;
         // Sort the oil rig alphabetically
-        ArrayList<OilRig> oilRigArrayList = new ArrayList(map.keySet());
+        ArrayList<OilRig> oilRigArrayList = new ArrayList<>(loadedFleet.getOilRigs());
         Collections.sort(oilRigArrayList, new Comparator<OilRig>() {
             @Override
             public int compare(OilRig o1, OilRig o2) {
@@ -168,99 +205,192 @@ public class UI extends MouseAdapter implements ActionListener {
             oilRigLabel.addMouseMotionListener(this);
 
             pane.add(oilRigLabel);
-            nodeLabelArrayList.add(oilRigLabel);
-            // Sort the ship nodes alphabetically
-            ArrayList<Ship> shipArrayList = new ArrayList(map.get(oilRig));
-            Collections.sort(shipArrayList, new Comparator<Ship>() {
-                @Override
-                public int compare(Ship s1, Ship s2) {
-                    String s1Name = s1.getAttributes().get("name").toString();
-                    String s2Name = s2.getAttributes().get("name").toString();
-                    return s1Name.compareTo(s2Name) * -1;
-                }
-            });
-            ArrayList<Point> shipLabelPositions = computeLabelPoints(oilRigLabelPos,
-                    pane.getPreferredSize().width/6.6,
-                    map.get(oilRig).size()
-            );
-            int j = 0;
-            for (Iterator<Ship> ships = shipArrayList.iterator(); ships.hasNext(); j++) {
-                Ship ship = ships.next();
-                Point shipLabelPos = shipLabelPositions.get(j);
-                ShipLabel shipLabel = null;
-                if (ship.getMaxWorkers() == 50) {
-                    shipLabel = new ShipLabel(
-                            ship,
-                            scaleIcon(SMALL_SHIP_ICON, SMALL_IMAGE_WIDTH, SMALL_IMAGE_HEIGHT),
-                            frame,
-                            shipLabelPos.x - SMALL_IMAGE_WIDTH/2,
-                            shipLabelPos.y - SMALL_IMAGE_HEIGHT/2
-                    );
-                } else {
-                    shipLabel = new ShipLabel(
-                            ship,
-                            scaleIcon(BIG_SHIP_ICON, SMALL_IMAGE_WIDTH, SMALL_IMAGE_HEIGHT),
-                            frame,
-                            shipLabelPos.x - SMALL_IMAGE_WIDTH/2,
-                            shipLabelPos.y - SMALL_IMAGE_HEIGHT/2
-                    );
-                }
+            labelIndex.add(oilRigLabel);
+            oilRigLabels.put(oilRig.getName(), oilRigLabel);
+
+            layoutShipLabels(pane, oilRigLabel, loadedFleet.getShips(oilRig));
+        }
+    }
 
-                shipLabel.addMouseListener(this);
-                shipLabel.addMouseMotionListener(this);
+    /**
+     * Position the ShipLabels of an oil rig's ships on a circle around the OilRigLabel
+     * Labels of ships that are not yet displayed are created, existing labels are moved
+     * @param pane Add new ShipLabels to pane
+     * @param oilRigLabel The OilRigLabel the ships anchor at
+     * @param ships The ships that anchor at the oil rig
+     */
+    private void layoutShipLabels(JLayeredPane pane, OilRigLabel oilRigLabel, List<Ship> ships) {
+        Point oilRigLabelPos = new Point(
+                oilRigLabel.getX() + BIG_IMAGE_WIDTH/2,
+                oilRigLabel.getY() + BIG_IMAGE_HEIGHT/2
+        );
 
-                pane.add(shipLabel);
+        // Sort the ship nodes alphabetically
+        ArrayList<Ship> shipArrayList = new ArrayList<>(ships);
+        Collections.sort(shipArrayList, new Comparator<Ship>() {
+            @Override
+            public int compare(Ship s1, Ship s2) {
+                String s1Name = s1.getAttributes().get("name").toString();
+                String s2Name = s2.getAttributes().get("name").toString();
+                return s1Name.compareTo(s2Name) * -1;
+            }
+        });
+        ArrayList<Point> shipLabelPositions = computeLabelPoints(oilRigLabelPos,
+                pane.getPreferredSize().width/6.6,
+                ships.size()
+        );
+        int j = 0;
+        for (Iterator<Ship> shipIterator = shipArrayList.iterator(); shipIterator.hasNext(); j++) {
+            Ship ship = shipIterator.next();
+            Point shipLabelPos = shipLabelPositions.get(j);
+            ShipLabel shipLabel = shipLabels.get(ship.getName());
+
+            if (shipLabel != null) {
+                shipLabel.setLocation(
+                        shipLabelPos.x - SMALL_IMAGE_WIDTH/2,
+                        shipLabelPos.y - SMALL_IMAGE_HEIGHT/2
+                );
                 pane.moveToFront(shipLabel);
-                nodeLabelArrayList.add(shipLabel);
+                labelIndex.update(shipLabel);
+                continue;
+            }
+
+            if (ship.getMaxWorkers() == 50) {
+                shipLabel = new ShipLabel(
+                        ship,
+                        scaleIcon(SMALL_SHIP_ICON, SMALL_IMAGE_WIDTH, SMALL_IMAGE_HEIGHT),
+                        frame,
+                        shipLabelPos.x - SMALL_IMAGE_WIDTH/2,
+                        shipLabelPos.y - SMALL_IMAGE_HEIGHT/2
+                );
+            } else {
+                shipLabel = new ShipLabel(
+                        ship,
+                        scaleIcon(BIG_SHIP_ICON, SMALL_IMAGE_WIDTH, SMALL_IMAGE_HEIGHT),
+                        frame,
+                        shipLabelPos.x - SMALL_IMAGE_WIDTH/2,
+                        shipLabelPos.y - SMALL_IMAGE_HEIGHT/2
+                );
             }
+
+            shipLabel.addMouseListener(this);
+            shipLabel.addMouseMotionListener(this);
+
+            pane.add(shipLabel);
+            pane.moveToFront(shipLabel);
+            labelIndex.add(shipLabel);
+            shipLabels.put(ship.getName(), shipLabel);
         }
     }
 
     /**
-     * Create a cypher query that returns all oil rigs with their attributes such as
-     * name, initial number of workers and small/big ships
-     * @return String which represents the cypher query
+     * Publish a freshly loaded fleet and apply it to the displayed NodeLabels, must run on the event dispatch thread
+     * The labels of known nodes are pointed at the loaded nodes, only the ships of oil rigs
+     * whose anchored ships changed are laid out again.
+     * If oil rigs were added, removed or changed all labels are rebuilt.
+     * Nothing happens if a fleet loaded by a later read has been published meanwhile.
+     * @param loadedFleet The oil rigs and the ships that anchor on them
      */
-    private String cypherOilRigs() {
-        return new OilRig().cypher("MATCH", "o")
-                + "RETURN o.name, o.initNumberWorkers, o.initNumberSmallShips, o.initNumberBigShips";
+    private void updateNodeLabels(Fleet loadedFleet) {
+        Fleet displayedFleet = fleetStore.get();
+        if (!fleetStore.publish(loadedFleet))
+            return;
+
+        // Workers that were shown for a redeployment are outdated
+        for (WorkersLabel workersLabel : workersLabels)
+            pane.remove(workersLabel);
+        workersLabels.clear();
+
+        if (!displaysOilRigs(loadedFleet)) {
+            JLayeredPane tmpPane = new JLayeredPane();
+            tmpPane.setPreferredSize(pane.getPreferredSize());
+            initNodeLabels(tmpPane, loadedFleet);
+            updateDisplay(tmpPane);
+            return;
+        }
+
+        HashSet<String> shipNames = new HashSet<>();
+        ArrayList<OilRig> changedOilRigs = new ArrayList<>();
+
+        for (OilRig oilRig : loadedFleet.getOilRigs()) {
+            oilRigLabels.get(oilRig.getName()).setNode(oilRig);
+
+            boolean shipsChanged = false;
+            for (Ship ship : loadedFleet.getShips(oilRig)) {
+                shipNames.add(ship.getName());
+
+                ShipLabel shipLabel = shipLabels.get(ship.getName());
+                if (shipLabel != null && !shipLabel.getNode().hasSameAttributes(ship)) {
+                    // The ship itself changed, its label will be recreated
+                    pane.remove(shipLabel);
+                    labelIndex.remove(shipLabel);
+                    shipLabels.remove(ship.getName());
+                    shipLabel = null;
+                }
+                if (shipLabel == null)
+                    shipsChanged = true;
+                else
+                    shipLabel.setNode(ship);
+            }
+
+            if (shipsChanged || !new HashSet<>(displayedFleet.getShips(oilRig)).equals(new HashSet<>(loadedFleet.getShips(oilRig))))
+                changedOilRigs.add(oilRig);
+        }
+
+        // Remove the labels of ships that don't exist anymore
+        for (Iterator<Map.Entry<String, ShipLabel>> entries = shipLabels.entrySet().iterator(); entries.hasNext();) {
+            ShipLabel shipLabel = entries.next().getValue();
+            if (shipNames.contains(shipLabel.getNode().getName()))
+                continue;
+
+            pane.remove(shipLabel);
+            labelIndex.remove(shipLabel);
+            entries.remove();
+        }
+
+        for (OilRig oilRig : changedOilRigs)
+            layoutShipLabels(pane, oilRigLabels.get(oilRig.getName()), loadedFleet.getShips(oilRig));
+
+        pane.repaint();
     }
 
     /**
-     * Set an oil rigs attributes (stats) via records of of cypher queries
-     * @param oilRig The oil rig whose attributes shall be set
+     * Determine if the displayed OilRigLabels represent exactly the oil rigs of a fleet
+     * @param loadedFleet The oil rigs and the ships that anchor on them
+     * @return True if no oil rig was added, removed or changed
      */
-    private void setOilRigStats(OilRig oilRig) {
-        ArrayList<Record> records = man.writeTx(oilRig.cypherCountWorkers());
-        oilRig.setNumberWorkers(records.get(0).get("count").asInt());
-
-        records = man.writeTx(oilRig.cypherCountSmallShips());
-        oilRig.setNumberSmallShips(records.get(0).get("count").asInt());
+    private boolean displaysOilRigs(Fleet loadedFleet) {
+        if (loadedFleet.size() != oilRigLabels.size())
+            return false;
 
-        records = man.writeTx(oilRig.cypherCountBigShips());
-        oilRig.setNumberBigShips(records.get(0).get("count").asInt());
+        for (OilRig loadedOilRig : loadedFleet.getOilRigs()) {
+            OilRigLabel oilRigLabel = oilRigLabels.get(loadedOilRig.getName());
+            if (oilRigLabel == null || !oilRigLabel.getNode().hasSameAttributes(loadedOilRig))
+                return false;
+        }
+        return true;
     }
 
     /**
-     * Set an ships attributes (stats) via records of of cypher queries
-     * @param ship The oil rig whose attributes shall be set
+     * Load all oil rigs, their stats and their anchored ships with a single fleet query
+     * The fleet gets its version before the query is issued, so it is ordered by the time it was read at.
+     * @return Stage that completes with the oil rigs and the ships that anchor on them
      */
-    private void setShipStats(Ship ship) {
-        ArrayList<Record> records = man.writeTx(ship.cypherCountWorkers());
-        ship.setNumberWorkers(records.get(0).get("count").asInt());
+    private CompletionStage<Fleet> loadFleet() {
+        long version = fleetStore.nextVersion();
+        return man.readTxAsync(OilRig.cypherMatchFleet(), records -> Fleet.fromRecords(records, version));
     }
 
     /**
      * Scale an ImageIcon to desired width and height
+     * The scaled icons are rendered once and shared via the IconCache
      * @param icon Icon that needs to be scaled
      * @param scaleWidth The width after scaling
      * @param scaleHeight The height after scaling
      * @return The scaled ImageIcon
      */
     private ImageIcon scaleIcon(ImageIcon icon, int scaleWidth, int scaleHeight) {
-        Image image = icon.getImage();
-        Image scaledImage = image.getScaledInstance(scaleWidth, scaleHeight, Image.SCALE_SMOOTH);
-        return new ImageIcon(scaledImage);
+        return iconCache.getScaledIcon(icon, scaleWidth, scaleHeight);
     }
 
     /**
@@ -271,7 +401,7 @@ public class UI extends MouseAdapter implements ActionListener {
      * @param n The number of labels that have to be put on the circle
      * @return A List of positions for the labels
      */
-    private ArrayList<Point> computeLabelPoints(Point center, double radius, int n) {
+    public static ArrayList<Point> computeLabelPoints(Point center, double radius, int n) {
         double radians = 2*Math.PI/n;
         ArrayList<Point> points = new ArrayList<>();
 
@@ -336,18 +466,20 @@ public class UI extends MouseAdapter implements ActionListener {
             location.y += y;
 
             ((NodeLabel) e.getSource()).setLocation(location);
+            highlightDropTarget(label);
         }
     }
 
     @Override
     public void mouseReleased(MouseEvent e) {
+        highlightDropTarget(null);
+
         if (e.getSource() instanceof ShipLabel) {
             ShipLabel label = (ShipLabel) e.getSource();
             if (label.isDragged()) {
+                labelIndex.update(label);
                 try {
-                    man.start();
                     connectShipLabelDrag(label);
-                    man.close();
                 } catch (Exception ex) {
                     ex.printStackTrace();
                 }
@@ -357,9 +489,7 @@ public class UI extends MouseAdapter implements ActionListener {
             WorkersLabel label = (WorkersLabel) e.getSource();
             if (label.isDragged()) {
                 try {
-                    man.start();
                     connectWorkersLabelDrag(label);
-                    man.close();
                 } catch (Exception ex) {
                     ex.printStackTrace();
                 }
@@ -383,38 +513,55 @@ public class UI extends MouseAdapter implements ActionListener {
         }
     }
 
+    /**
+     * Find the NodeLabels a dragged label could be dropped on via the LabelIndex
+     * A ShipLabel can only be dropped on OilRigLabels, a WorkersLabel on OilRigLabels and ShipLabels
+     * @param label The NodeLabel that is dragged
+     * @return List of NodeLabels the dragged label's bounds intersect with
+     */
+    private ArrayList<NodeLabel> dropTargets(NodeLabel label) {
+        ArrayList<NodeLabel> targets = new ArrayList<>();
+
+        for (NodeLabel nodeLabel : labelIndex.query(label.getBounds())) {
+            if (nodeLabel == label)
+                continue;
+            if (label instanceof ShipLabel && !(nodeLabel instanceof OilRigLabel))
+                continue;
+            targets.add(nodeLabel);
+        }
+
+        return targets;
+    }
+
+    /**
+     * Highlight the NodeLabel a dragged label would be dropped on
+     * @param label The NodeLabel that is dragged, null to remove the highlight
+     */
+    private void highlightDropTarget(NodeLabel label) {
+        NodeLabel target = null;
+        if (label != null) {
+            ArrayList<NodeLabel> targets = dropTargets(label);
+            if (targets.size() == 1)
+                target = targets.get(0);
+        }
+
+        if (highlightedLabel == target)
+            return;
+        if (highlightedLabel != null)
+            highlightedLabel.setHighlighted(false);
+        if (target != null)
+            target.setHighlighted(true);
+        highlightedLabel = target;
+    }
+
     /**
      * Try to find a overlapping OilRigLabel with the ShipLabel to detect an drag-and-drop process
      * If detected: Redeploy the ship via a cypher query
      * @param label The ShipLabel that has been moved as part of drag-and-drop process
-     * @throws Exception May throw an exception as result of the refresh() method call
      */
-    private void connectShipLabelDrag(ShipLabel label) throws Exception {
-        Point labelPos = label.getLocationOnScreen();
-        Rectangle labelBounds = new Rectangle(
-                labelPos.x,
-                labelPos.y,
-                label.getWidth(),
-                label.getHeight()
-        );
-
+    private void connectShipLabelDrag(ShipLabel label) {
         // Compute all OilRigLabels the ShipLabels bounds intersect with
-        ArrayList<OilRigLabel> oilRigsEntered = new ArrayList<>();
-        for (NodeLabel nodeLabel : nodeLabelArrayList) {
-            if (nodeLabel instanceof OilRigLabel) {
-                Point entityLabelPos = nodeLabel.getLocationOnScreen();
-                Rectangle entityLabelBounds = new Rectangle(
-                        entityLabelPos.x,
-                        entityLabelPos.y,
-                        nodeLabel.getWidth(),
-                        nodeLabel.getHeight()
-                );
-
-                if (labelBounds.intersects(entityLabelBounds)) {
-                    oilRigsEntered.add((OilRigLabel) nodeLabel);
-                }
-            }
-        }
+        ArrayList<NodeLabel> oilRigsEntered = dropTargets(label);
 
         if (oilRigsEntered.size() > 1) {
             String title = "Unsuccessful drag!";
@@ -423,7 +570,7 @@ public class UI extends MouseAdapter implements ActionListener {
             System.out.println(message);
             return;
         } else if (oilRigsEntered.size() == 1) {
-            OilRigLabel oilRigLabel = oilRigsEntered.get(0);
+            OilRigLabel oilRigLabel = (OilRigLabel) oilRigsEntered.get(0);
             Ship ship = label.getNode();
 
             if (!canShipLeaveOilRig(ship))
@@ -432,12 +579,10 @@ public class UI extends MouseAdapter implements ActionListener {
             if (!hasOilRigShipCapacity(oilRigLabel.getNode(), ship))
                 return;
 
-            man.writeTx(cypherRedeployShip(
+            writeAndRefresh(cypherRedeployShip(
                     label.getNode(),
                     oilRigLabel.getNode()
             ));
-
-            refresh();
         }
     }
 
@@ -447,16 +592,11 @@ public class UI extends MouseAdapter implements ActionListener {
      * @return True if the ship can leave it's current oil rig
      */
     private boolean canShipLeaveOilRig(Ship ship) {
-        for (OilRig oilRig : map.keySet()) {
-            if (map.get(oilRig).contains(ship)) {
-                if (oilRig.getNumberSmallShips() + oilRig.getNumberBigShips() < 2) {
-                    return false;
-                } else {
-                    return true;
-                }
-            }
-        }
-        return false;
+        OilRig oilRig = fleetStore.get().getOilRig(ship);
+        if (oilRig == null)
+            return false;
+
+        return oilRig.getNumberSmallShips() + oilRig.getNumberBigShips() >= 2;
     }
 
     /**
@@ -495,32 +635,10 @@ public class UI extends MouseAdapter implements ActionListener {
      * Try to find a overlapping NodeLabel with the WorkersLabel to detect an drag-and-drop process
      * If detected: Redeploy the workers via a cypher query
      * @param label The WorkersLabel that has been moved as part of drag-and-drop process
-     * @throws Exception May throw an exception as result of the refresh() method call
      */
-    private void connectWorkersLabelDrag(WorkersLabel label) throws Exception {
-        Point labelPos = label.getLocationOnScreen();
-        Rectangle labelBounds = new Rectangle(
-                labelPos.x,
-                labelPos.y,
-                label.getWidth(),
-                label.getHeight()
-        );
-
+    private void connectWorkersLabelDrag(WorkersLabel label) {
         // Compute all NodeLabels the WorkersLabels bounds intersect with
-        ArrayList<NodeLabel> nodeLabelsEntered = new ArrayList<>();
-        for (NodeLabel nodeLabel : nodeLabelArrayList) {
-            Point entityLabelPos = nodeLabel.getLocationOnScreen();
-            Rectangle entityLabelBounds = new Rectangle(
-                    entityLabelPos.x,
-                    entityLabelPos.y,
-                    nodeLabel.getWidth(),
-                    nodeLabel.getHeight()
-            );
-
-            if (labelBounds.intersects(entityLabelBounds)) {
-                nodeLabelsEntered.add(nodeLabel);
-            }
-        }
+        ArrayList<NodeLabel> nodeLabelsEntered = dropTargets(label);
 
         if (nodeLabelsEntered.size() > 1) {
             String title = "Unsuccessful drag!";
@@ -580,12 +698,13 @@ public class UI extends MouseAdapter implements ActionListener {
                 }
             }
 
-            man.writeTx(cypherRedeployWorker(
+            writeAndRefresh(cypherRedeployWorker(
                     label.getNode(),
+                    label.getInvoker(),
                     nodeLabelsEntered.get(0).getNode()
             ));
-
-            refresh();
+            Node holder = nodeLabelsEntered.get(0).getNode();
+            fleetStore.update(fleet -> fleet.withWorkersDeployed(label.getNode(), holder));
         }
     }
 
@@ -593,42 +712,45 @@ public class UI extends MouseAdapter implements ActionListener {
      * Create a cypher query that detaches an ship and anchors it to a oil rig node
      * @param ship The ship which shall be moved
      * @param oilRig The oil rig to ship shall be moved to
-     * @return String which represents the cypher query
+     * @return CypherQuery which represents the cypher query
      */
-    private String cypherRedeployShip(Ship ship, OilRig oilRig) {
+    private CypherQuery cypherRedeployShip(Ship ship, OilRig oilRig) {
         Relationship anchored = new Relationship("ANCHORED");
-        return ship.cypher("MATCH", "s") + "\n"
-                + oilRig.cypher("MATCH", "o") + "\n"
-                + ship.cypherRelationshipTo("MATCH", "", anchored, "d") + " DELETE d" + "\n"
-                + ship.cypherRelationshipTo("CREATE", "o", anchored, "");
+        return ship.cypherMatch("s").append("\n")
+                .append(oilRig.cypherMatch("o")).append("\n")
+                .append(ship.cypherRelationshipTo("MATCH", "", anchored, "d")).append(" DELETE d").append("\n")
+                .append(ship.cypherRelationshipTo("CREATE", "o", anchored, ""))
+                .named("UI.cypherRedeployShip");
     }
 
     /**
      * Create a cypher query that detaches workers and redeploy the to a node
+     * All workers are moved by one set-based statement over the list of their names,
+     * workers who are not deployed at the expected node anymore are left where they are
      * @param workers The list of workers that shall be redeployed
+     * @param from The node (ship/oil rig) the workers are expected to be deployed at
      * @param node The node (ship/oil rig) the workers shall be redeployed to
-     * @return String which represents the cypher query
+     * @return CypherQuery which represents the cypher query
      */
-    private String cypherRedeployWorker(ArrayList<Worker> workers, Node node) {
+    private CypherQuery cypherRedeployWorker(ArrayList<Worker> workers, Node from, Node node) {
+        Worker worker = new Worker();
+        worker.setNodeVariable("w");
         Relationship deployed = new Relationship("DEPLOYED");
 
-        String cypherQuery = node.cypher("MATCH", "n") + "\n";
-        for (int i = 0; i < workers.size(); i++) {
-            Worker worker = workers.get(i);
-            String iToString = Integer.toString(i);
-
-            cypherQuery += worker.cypher("MATCH", "w" + iToString) + "\n"
-                    + worker.cypherRelationshipTo("MATCH", "", deployed, "d" + iToString) + "\n";
+        ArrayList<String> workerNames = new ArrayList<>();
+        for (Worker redeployedWorker : workers) {
+            workerNames.add(redeployedWorker.getName());
         }
-        for (int i = 0; i < workers.size(); i++) {
-            Worker worker = workers.get(i);
-            String iToString = Integer.toString(i);
 
-            cypherQuery += "DELETE d" + iToString + "\n"
-                    + worker.cypherRelationshipTo("CREATE", "n", deployed, "") + "\n";
-        }
-
-        return cypherQuery;
+        return node.cypherMatch("n").append("\n")
+                .append(from.cypherMatch("f")).append("\n")
+                .append("UNWIND $workerNames AS workerName\n")
+                .append("MATCH (w:Worker {name: workerName})\n")
+                .append(worker.cypherRelationshipTo("MATCH", "f", deployed, "d")).append("\n")
+                .append("DELETE d\n")
+                .append(worker.cypherRelationshipTo("CREATE", "n", deployed, ""))
+                .parameter("workerNames", workerNames)
+                .named("UI.cypherRedeployWorker");
     }
 
     /**
@@ -662,14 +784,10 @@ public class UI extends MouseAdapter implements ActionListener {
      * Determine if ships anchors at oil rig
      * @param ship The ship that is checked
      * @param oilRig The oil rig
-     * @return
+     * @return True if the ship anchors at the oil rig
      */
     private boolean shipAnchorsAtOilRig(Ship ship, OilRig oilRig) {
-        for (Ship other : map.get(oilRig)) {
-            if (other.equals(ship))
-                return true;
-        }
-        return false;
+        return fleetStore.get().anchorsAt(ship, oilRig);
     }
 
     /**
@@ -679,34 +797,14 @@ public class UI extends MouseAdapter implements ActionListener {
      * @return True if the ships anchor at the same oil rig
      */
     private boolean shipsAnchorAtSameOilRig(Ship invoker, Ship node) {
-        boolean invokerAtOilRig = false;
-        boolean nodeAtOilRig = false;
-
-        boolean shipFound = false;
-
-        for (OilRig oilRig : map.keySet()) {
-            for (Ship ship : map.get(oilRig)) {
-                if (ship.equals(invoker) || ship.equals(node)) {
-                    if (!shipFound)
-                        shipFound = true;
-
-                    if (ship.equals(invoker))
-                        invokerAtOilRig = true;
-
-                    if (ship.equals(node))
-                        nodeAtOilRig = true;
-                }
-            }
-            if (shipFound)
-                return (invokerAtOilRig && nodeAtOilRig);
-        }
-        return false;
+        return fleetStore.get().anchorAtSameOilRig(invoker, node);
     }
 
     /**
      * Add the pane to the frame and display it
      */
     public void display() {
+        initNodeLabels(pane, fleetStore.get());
         frame.add(pane);
         frame.pack();
         frame.setLocation(screenSize.width/2, 0);
@@ -729,14 +827,14 @@ public class UI extends MouseAdapter implements ActionListener {
         if (e.getSource() instanceof ClickMenuItem) {
             ClickMenuItem item = (ClickMenuItem) e.getSource();
             if (item.getClickMenuAction() == ClickMenuAction.RESET) {
-                try {
-                    man.start();
-                    new ExampleDatabase(man);
-                    refresh();
-                    man.close();
-                } catch (Exception ex) {
-                    ex.printStackTrace();
-                }
+                queueWrite(() -> {
+                    try {
+                        new ExampleDatabase(man);
+                    } catch (DatabaseAccessException ex) {
+                        showDatabaseFailure("Unsuccessful reset!", "The example database couldn't be created!", ex);
+                    }
+                });
+                refresh();
             }
         } else if (e.getSource() instanceof NodeClickMenuItem) {
             NodeClickMenuItem item = (NodeClickMenuItem) e.getSource();
@@ -744,9 +842,7 @@ public class UI extends MouseAdapter implements ActionListener {
                 new WorkersRedeployForm(item.getNodeLabel(), this);
             } else if (item.getClickMenuAction() == ClickMenuAction.EVACUATE) {
                 try {
-                    man.start();
                     evacuate((OilRigLabel) item.getNodeLabel());
-                    man.close();
                 } catch (Exception ex) {
                     ex.printStackTrace();
                 }
@@ -757,7 +853,6 @@ public class UI extends MouseAdapter implements ActionListener {
             if (button.getSubmitFormType() == Forms.WORKERS_REDEPLOY_FORM) {
                 System.out.println("Will try to submit WorkersRedeployForm");
                 button.getSubmitForm().disposeFrame();
-                man.start();
 
                 if (button.getNodeLabel() instanceof OilRigLabel) {
                     OilRigLabel oilRigLabel = (OilRigLabel) button.getNodeLabel();
@@ -784,11 +879,6 @@ public class UI extends MouseAdapter implements ActionListener {
                         String message = "Submit was ineffective! Practically no workers could be found!";
                         JOptionPane.showMessageDialog(null, message, "InfoBox: " + title, JOptionPane.INFORMATION_MESSAGE);
                         System.out.println(message);
-                        try {
-                            man.close();
-                        } catch (Exception ex) {
-                            ex.printStackTrace();
-                        }
                         return;
                     }
 
@@ -797,11 +887,6 @@ public class UI extends MouseAdapter implements ActionListener {
                         String message = "Submit was ineffective! To many workers wanted to be evacuated!";
                         JOptionPane.showMessageDialog(null, message, "InfoBox: " + title, JOptionPane.INFORMATION_MESSAGE);
                         System.out.println(message);
-                        try {
-                            man.close();
-                        } catch (Exception ex) {
-                            ex.printStackTrace();
-                        }
                         return;
                     }
 
@@ -810,11 +895,6 @@ public class UI extends MouseAdapter implements ActionListener {
                         String message = "Submit was ineffective! Minimal number of workers was violated!";
                         JOptionPane.showMessageDialog(null, message, "InfoBox: " + title, JOptionPane.INFORMATION_MESSAGE);
                         System.out.println(message);
-                        try {
-                            man.close();
-                        } catch (Exception ex) {
-                            ex.printStackTrace();
-                        }
                         return;
                     }
                 } else if (button.getNodeLabel() instanceof ShipLabel) {
@@ -841,11 +921,6 @@ public class UI extends MouseAdapter implements ActionListener {
                         String message = "Submit was ineffective! Practically no workers could be found!";
                         JOptionPane.showMessageDialog(null, message, "InfoBox: " + title, JOptionPane.INFORMATION_MESSAGE);
                         System.out.println(message);
-                        try {
-                            man.close();
-                        } catch (Exception ex) {
-                            ex.printStackTrace();
-                        }
                         return;
                     }
 
@@ -854,95 +929,71 @@ public class UI extends MouseAdapter implements ActionListener {
                         String message = "Submit was ineffective! Virtual workers want to be redeployed!";
                         JOptionPane.showMessageDialog(null, message, "InfoBox: " + title, JOptionPane.INFORMATION_MESSAGE);
                         System.out.println(message);
-                        try {
-                            man.close();
-                        } catch (Exception ex) {
-                            ex.printStackTrace();
-                        }
                         return;
                     }
                 }
 
                 WorkersRedeployForm workersRedeployForm = (WorkersRedeployForm) button.getSubmitForm();
                 Node node = workersRedeployForm.getNodeLabel().getNode();
-                String limit = workersRedeployForm.getSubmits().get(0).toString();
-
-                CompletableFuture<ArrayList<Worker>> completableFuture = CompletableFuture.supplyAsync(
-                        () -> workersList(node, limit)
-                );
-
-                while (!completableFuture.isDone()) {
-                    System.out.println("CompletableFuture is not finished yet...");
-                }
-
-                WorkersLabel workersLabel = null;
-                try {
-                    System.out.println("CompletableFuture turned out to be: successful");
-                    workersLabel = new WorkersLabel(
-                            button.getNodeLabel().getNode(),
-                            completableFuture.get(),
-                            scaleIcon(WORKER_ICON, SMALL_IMAGE_WIDTH, SMALL_IMAGE_HEIGHT),
-                            frame,
-                            button.getNodeLabel().getX(),
-                            button.getNodeLabel().getY()
-                    );
-
-                    workersLabel.addMouseListener(this);
-                    workersLabel.addMouseMotionListener(this);
-
-                    pane.add(workersLabel);
-                    pane.moveToFront(workersLabel);
-                    frame.validate();
-
-                    man.close();
-                } catch (InterruptedException ex) {
-                    String title = "Unsuccessful WorkersLabel addition!";
-                    String message = "CompletableFuture turned out to be: unsuccessful";
-                    JOptionPane.showMessageDialog(null, message, "InfoBox: " + title, JOptionPane.INFORMATION_MESSAGE);
-                    System.out.println(message);
-                    ex.printStackTrace();
-                } catch (ExecutionException ex) {
-                    ex.printStackTrace();
-                } catch (Exception ex) {
-                    ex.printStackTrace();
-                }
+                int limit = Integer.parseInt(workersRedeployForm.getSubmits().get(0).toString());
+
+                NodeLabel invokerLabel = button.getNodeLabel();
+
+                afterQueuedWrites()
+                        .thenCompose(ignored -> loadWorkers(node, limit))
+                        .whenComplete((workers, throwable) -> SwingUtilities.invokeLater(() -> {
+                            if (throwable != null) {
+                                showDatabaseFailure("Unsuccessful WorkersLabel addition!", "The workers could not be loaded!", throwable);
+                                return;
+                            }
+
+                            fleetStore.update(fleet -> fleet.withWorkersDeployed(workers, invokerLabel.getNode()));
+                            WorkersLabel workersLabel = new WorkersLabel(
+                                    invokerLabel.getNode(),
+                                    workers,
+                                    scaleIcon(WORKER_ICON, SMALL_IMAGE_WIDTH, SMALL_IMAGE_HEIGHT),
+                                    frame,
+                                    invokerLabel.getX(),
+                                    invokerLabel.getY()
+                            );
+
+                            workersLabel.addMouseListener(this);
+                            workersLabel.addMouseMotionListener(this);
+
+                            pane.add(workersLabel);
+                            pane.moveToFront(workersLabel);
+                            workersLabels.add(workersLabel);
+                            frame.validate();
+                        }));
             }
         }
 
         if (e.getSource() instanceof AcceptButton) {
             AcceptButton acceptButton = (AcceptButton) e.getSource();
-            if (acceptButton.getAccept()) {
-                acceptButton.getEvacuateForm().dispose();
-                try {
-                    man.start();
-                    refresh();
-                    man.close();
-                } catch (Exception ex) {
-                    String title = "Unsuccessful evacuation process!";
-                    String message = "Proposed evacuation couldn't be displayed!";
-                    JOptionPane.showMessageDialog(null, message, "InfoBox: " + title, JOptionPane.INFORMATION_MESSAGE);
-                    System.out.println(message);
-                    ex.printStackTrace();
-                }
+            EvacuateForm evacuateForm = acceptButton.getEvacuateForm();
+            evacuateForm.dispose();
+
+            // A declined evacuation has not been written, so there is nothing to undo
+            if (!acceptButton.getAccept() || evacuateForm.getEvacuateQueries().isEmpty())
                 return;
-            }
 
-            EvacuateForm evacuateForm = acceptButton.getEvacuateForm();
-            try {
-                man.start();
-                for (String query : evacuateForm.getDeclineQueries()) {
-                    man.writeTx(query);
-                }
-                refresh();
-                man.close();
-            } catch (Exception ex) {
-                String title = "Unsuccessful inverse evacuation process!";
-                String message = "Proposed evacuation couldn't be refused!";
+            // Ship slots and worker capacities may be exceeded if the plan is written on a changed fleet
+            if (fleetStore.get() != evacuateForm.getPlannedFleet() || queuedWrites.get() != evacuateForm.getPlannedWrites()) {
+                String title = "Outdated evacuation!";
+                String message = "The fleet has changed since the evacuation was planned, nothing has been changed!\nPlease evacuate the oil rig again.";
                 JOptionPane.showMessageDialog(null, message, "InfoBox: " + title, JOptionPane.INFORMATION_MESSAGE);
                 System.out.println(message);
-                ex.printStackTrace();
+                return;
             }
-            acceptButton.getEvacuateForm().dispose();
+
+            queueWrite(() -> {
+                try {
+                    man.writeTx(evacuateForm.getEvacuateQueries());
+                } catch (DatabaseAccessException ex) {
+                    showDatabaseFailure("Unsuccessful evacuation process!", "The evacuation couldn't be saved, nothing has been changed!", ex);
+                }
+            });
+            refresh();
         }
     }
 
@@ -950,144 +1001,122 @@ public class UI extends MouseAdapter implements ActionListener {
      * Create a cypher query returns a number of workers who are deployed at a node
      * @param node The node the workers are deployed at
      * @param limit The number of workers
-     * @return String which represents the cypher query
+     * @return CypherQuery which represents the cypher query
      */
-    private String cypherWorkers(Node node, String limit) {
+    private CypherQuery cypherWorkers(Node node, int limit) {
         Worker worker = new Worker();
         worker.setNodeVariable("w");
 
         Relationship deployed = new Relationship("DEPLOYED");
 
-        String cypherQuery = node.cypher("MATCH", "n") + "\n"
-                + worker.cypherRelationshipTo("MATCH", "n", deployed, "") + "\n"
-                + "RETURN w.name, w.job LIMIT " + limit;
+        CypherQuery cypherQuery = node.cypherMatch("n").append("\n")
+                .append(worker.cypherRelationshipTo("MATCH", "n", deployed, "")).append("\n")
+                .append("RETURN w.name, w.job LIMIT $limit")
+                .parameter("limit", limit)
+                .named("UI.cypherWorkers");
 
         return cypherQuery;
     }
 
     /**
-     * Create a list of workers from a given node
+     * Load a list of workers from a given node without blocking the calling thread
      * @param node The node the workers are deployed on
      * @param limit The amount of workers
-     * @return The list of workers
+     * @return Stage that completes with the list of workers
      */
-    private ArrayList<Worker> workersList(Node node, String limit) {
-        ArrayList<Record> records = man.writeTx(cypherWorkers(node, limit));
-
-        ArrayList<Worker> workers = new ArrayList<>();
-        for (Record record : records) {
-            String name = record.get("w.name").asString();
-            String job = record.get("w.job").asString();
+    private CompletionStage<ArrayList<Worker>> loadWorkers(Node node, int limit) {
+        return man.readTxAsync(cypherWorkers(node, limit), records -> {
+            ArrayList<Worker> workers = new ArrayList<>();
+            for (Record record : records) {
+                workers.add(toWorker(record));
+            }
+            return workers;
+        });
+    }
 
-            workers.add(new Worker(name, job));
-        }
+    /**
+     * Create a worker from a row of cypherWorkers()
+     * @param record The row
+     * @return The worker
+     */
+    private Worker toWorker(Record record) {
+        String name = record.get("w.name").asString();
+        String job = record.get("w.job").asString();
 
-        return workers;
+        return new Worker(name, job);
     }
 
     /**
-     * Evacuate the workers and ships from an oil rig with cypher queries
-     * Ask for acceptance of the evacuation via an EvacuationForm
+     * Plan the evacuation of the workers and ships from an oil rig
+     * The moves are planned on the fleet by the EvacuationPlanner,
+     * the evacuees are loaded with a single query after the queued writes and handed out to the moves.
+     * Nothing is written until the evacuation is accepted in the EvacuationForm,
+     * then all moves are written in one transaction.
      * @param oilRigLabel The oil rig that shall be evacuated
      */
     public void evacuate(OilRigLabel oilRigLabel) {
         OilRig oilRig = oilRigLabel.getNode();
-        int numberWorkers = oilRig.getNumberWorkers();
+        Fleet plannedFleet = fleetStore.get();
+        long plannedWrites = queuedWrites.get();
+        EvacuationPlan plan = new EvacuationPlanner(plannedFleet).plan(oilRig);
+
+        int numberEvacuees = plan.getEvacuatedWorkers();
+        afterQueuedWrites()
+                .thenCompose(ignored -> numberEvacuees > 0
+                        ? loadWorkers(oilRig, numberEvacuees)
+                        : CompletableFuture.completedFuture(new ArrayList<>()))
+                .whenComplete((evacuees, throwable) -> SwingUtilities.invokeLater(() -> {
+                    if (throwable != null) {
+                        showDatabaseFailure("Unsuccessful evacuation process!", "The workers to evacuate could not be loaded!", throwable);
+                        return;
+                    }
 
-        ArrayList<String> declineQueries = new ArrayList<>();
-        ArrayList<String> evacuateText = new ArrayList<>();
+                    openEvacuateForm(oilRig, plan, evacuees, plannedFleet, plannedWrites);
+                }));
+    }
 
-        // Iterate through all ships that anchor on the oil rig
-        // Redeploy workers on these ships
-        ArrayList<Ship> shipArrayList = new ArrayList<>();
-        for (Ship ship : map.get(oilRig)) {
-            shipArrayList.add(ship);
+    /**
+     * Hand out the evacuees to the moves of a plan and ask for acceptance of the evacuation in an EvacuateForm,
+     * must run on the event dispatch thread
+     * @param oilRig The oil rig that shall be evacuated
+     * @param plan The planned moves
+     * @param evacuees The workers that are evacuated
+     * @param plannedFleet The fleet snapshot the plan has been computed on
+     * @param plannedWrites Number of writes that had been queued when the plan was computed
+     */
+    private void openEvacuateForm(OilRig oilRig, EvacuationPlan plan, List<Worker> evacuees,
+                                  Fleet plannedFleet, long plannedWrites) {
+        ArrayList<CypherQuery> evacuateQueries = new ArrayList<>();
+        ArrayList<String> evacuateText = new ArrayList<>();
+        int nextEvacuee = 0;
 
-            if (numberWorkers <= 0)
-                continue;
+        for (EvacuationMove move : plan.getMoves()) {
+            Ship ship = move.getShip();
+            OilRig destination = move.getTo();
 
-            Integer maxWorkers = ship.getMaxWorkers();
-            ArrayList<Worker> workers = workersList(oilRig, maxWorkers.toString());
+            if (move.isShipMoved()) {
+                evacuateQueries.add(cypherRedeployShip(ship, destination));
+                evacuateText.add(redeployShip(ship, move.getFrom(), destination));
+            }
 
-            if (ship.getNumberWorkers() + workers.size() > maxWorkers)
+            int lastEvacuee = Math.min(evacuees.size(), nextEvacuee + move.getWorkers());
+            ArrayList<Worker> workers = new ArrayList<>(evacuees.subList(nextEvacuee, lastEvacuee));
+            nextEvacuee = lastEvacuee;
+            if (workers.isEmpty())
                 continue;
 
-            ship.setNumberWorkers(workers.size());
-            man.writeTx(cypherRedeployWorker(workers, ship));
-            evacuateText.add(redeployWorker(workers, oilRig, ship));
-
-            declineQueries.add(cypherRedeployWorker(workers, oilRig));
-
-            numberWorkers -= maxWorkers;
+            evacuateQueries.add(cypherRedeployWorker(workers, oilRig, destination));
+            evacuateText.add(redeployWorker(workers, oilRig, destination) + String.format(" (aboard the ship named '%s')", ship.getName()));
         }
 
-        // If workers remain, but all anchored ships are full
-        if (numberWorkers > 0) {
-            // Iterate through other oil rigs and use their ships to evacuate
-            for (OilRig partner : map.keySet()) {
-                if (partner.equals(oilRig))
-                    continue;
-
-                ArrayList<Ship> ships = map.get(partner);
-                for (int i = 0; i < ships.size()-1; i++) {
-                    Ship ship = ships.get(i);
-                    Integer maxCapacity = ship.getMaxWorkers();
-
-                    ArrayList<Worker> workers = workersList(oilRig, maxCapacity.toString());
-                    ship.setNumberWorkers(workers.size());
-                    man.writeTx(cypherRedeployWorker(workers, ship));
-                    evacuateText.add(redeployWorker(workers, oilRig, ship));
-
-                    declineQueries.add(cypherRedeployWorker(workers, oilRig));
-
-                    shipArrayList.add(ship);
-                    numberWorkers -= maxCapacity;
-
-                    if (numberWorkers <= 0)
-                        break;
-                }
-                if (numberWorkers <= 0)
-                    break;
-            }
+        if (plan.getStrandedWorkers() > 0)
+            evacuateText.add(String.format("%d workers could not be evacuated, no ship or oil rig has capacity left.", plan.getStrandedWorkers()));
+        for (Ship ship : plan.getStrandedShips()) {
+            evacuateText.add(String.format("The ship named '%s' could not leave, no oil rig has a free slot for it.", ship.getName()));
         }
 
-        // Iterate through other oil rigs and determine if
-        // the ships that have taken part in the evacuation (inside the shipArrayList)
-        // can anchor and be unloaded there
-        for (OilRig partner : map.keySet()) {
-            if (partner.equals(oilRig))
-                continue;
-            ArrayList<Ship> checkedShips = new ArrayList<>();
-            for (int i = 0; i <  shipArrayList.size(); i++) {
-                Ship ship = shipArrayList.get(i);
-
-                if (hasOilRigShipCapacity(partner, ship)) {
-                    // Check if the ships workers can be redeployed on the oil rig
-                    if (partner.getNumberWorkers() + ship.getNumberWorkers() <= partner.getMaxWorkers()) {
-                        man.writeTx(cypherRedeployShip(ship, partner));
-                        evacuateText.add(redeployShip(ship, oilRig, partner));
-
-                        declineQueries.add(cypherRedeployShip(ship, oilRig));
-
-                        ArrayList<Worker> workers = workersList(ship, ship.getMaxWorkers().toString());
-                        if (workers.size() > 0) {
-                            man.writeTx(cypherRedeployWorker(workers, partner));
-                            evacuateText.add(redeployWorker(workers, ship, partner));
-
-                            declineQueries.add(cypherRedeployWorker(workers, oilRig));
-                        }
-
-                        checkedShips.add(ship);
-
-                        partner.setNumberWorkers(partner.getNumberWorkers() + workers.size());
-                        partner.setNumberShips(partner.getNumberShips() + 1);
-                    }
-                }
-            }
-            shipArrayList.removeAll(checkedShips);
-        }
         // Open an EvacuationForm to ask for acceptance of the evacuation process
-        new EvacuateForm(this, declineQueries, evacuateText);
+        new EvacuateForm(this, evacuateQueries, evacuateText, plannedFleet, plannedWrites);
     }
 
     /**
@@ -1141,30 +1170,80 @@ public class UI extends MouseAdapter implements ActionListener {
     }
 
     /**
-     * Update the pane by calling initNodeLabels asynchronously
-     * @throws InterruptedException
-     * @throws ExecutionException
+     * Write a cypher query on the database executor and refresh the pane afterwards
+     * @param cypherQuery The query which changes the fleet
      */
-    private void refresh() throws InterruptedException, ExecutionException {
-        JLayeredPane tmpPane = new JLayeredPane();
-        tmpPane.setPreferredSize(pane.getPreferredSize());
-        CompletableFuture<Boolean> completableFuture = CompletableFuture.supplyAsync(
-                () -> {
-                    try {
-                        initNodeLabels(tmpPane);
-                    } catch (Exception e) {
-                        e.printStackTrace();
-                        return false;
-                    }
-                    return true;
-                }
-        );
+    private void writeAndRefresh(CypherQuery cypherQuery) {
+        queueWrite(() -> {
+            try {
+                man.writeTx(cypherQuery);
+            } catch (DatabaseAccessException ex) {
+                showDatabaseFailure("Unsuccessful redeployment!", "The change couldn't be saved!", ex);
+            }
+        });
+        refresh();
+    }
 
-        while (!completableFuture.isDone()) {
-            System.out.println("CompletableFuture is not finished yet...");
-        }
+    /**
+     * Queue a write on the database executor and count it, so plans made before the write can be recognized
+     * @param write Writes to the database
+     */
+    private void queueWrite(Runnable write) {
+        queuedWrites.incrementAndGet();
+        databaseExecutor.execute(write);
+    }
+
+    /**
+     * Inform the user about a failed database access, may be called from any thread
+     * @param title Title of the InfoBox
+     * @param message Message of the InfoBox
+     * @param error The failure
+     */
+    private void showDatabaseFailure(String title, String message, Throwable error) {
+        Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+        String text = message;
+        if (cause instanceof DatabaseAccessException && ((DatabaseAccessException) cause).isTransient())
+            text += " The database is busy, please try again later.";
+
+        String infoText = text;
+        SwingUtilities.invokeLater(() -> JOptionPane.showMessageDialog(null, infoText, "InfoBox: " + title, JOptionPane.INFORMATION_MESSAGE));
+        System.out.println(text);
+        error.printStackTrace();
+    }
+
+    /**
+     * Wait for the writes that have been queued on the database executor so far
+     * @return Stage that completes on the database executor after those writes
+     */
+    private CompletableFuture<Void> afterQueuedWrites() {
+        return CompletableFuture.runAsync(() -> {}, databaseExecutor);
+    }
+
+    /**
+     * Reload the fleet after the queued writes and apply it to the pane on the event dispatch thread.
+     * The read itself runs on the driver's async session and does not hold the database executor.
+     * Refreshes that are still queued when a newer one is requested are coalesced into the newer one,
+     * the results of superseded refreshes are dropped.
+     */
+    private void refresh() {
+        long generation = refreshGeneration.incrementAndGet();
+
+        afterQueuedWrites()
+                .thenCompose(ignored -> {
+                    // A newer refresh has been requested in the meantime
+                    if (generation != refreshGeneration.get())
+                        return CompletableFuture.completedFuture(null);
+                    return loadFleet();
+                })
+                .whenComplete((loadedFleet, throwable) -> SwingUtilities.invokeLater(() -> {
+                    if (throwable != null) {
+                        showDatabaseFailure("Unsuccessful refresh!", "The map couldn't be reloaded!", throwable);
+                        return;
+                    }
+                    if (loadedFleet == null || generation != refreshGeneration.get())
+                        return;
 
-        System.out.println("CompletableFuture turned out to be: " + completableFuture.get().toString());
-        updateDisplay(tmpPane);
+                    updateNodeLabels(loadedFleet);
+                }));
     }
 }
@@ -1,5 +1,8 @@
 package frontend.forms;
 
+import backend.entities.CypherQuery;
+import backend.fleet.Fleet;
+
 import javax.swing.*;
 import java.awt.event.ActionListener;
 import java.util.ArrayList;
@@ -14,21 +17,29 @@ public class EvacuateForm extends JFrame {
     private JButton declineButton;
     private JScrollPane scrollPane;
 
-    private final ArrayList<String> declineQueries;
+    private final ArrayList<CypherQuery> evacuateQueries;
     private final ArrayList<String> lines;
+    private final Fleet plannedFleet;
+    private final long plannedWrites;
 
     /**
      * Create evacuation form
      * @param actionListener The shared ActionListener (UI)
-     * @param queries The queries which will be executed when a evacuation was denied
+     * @param queries The queries which will be executed in one transaction when the evacuation is accepted
      * @param evacuateText The text that represents the actions of an evacuation
+     * @param plannedFleet The fleet snapshot the evacuation has been planned on
+     * @param plannedWrites Number of writes that had been queued when the evacuation was planned
      */
     public EvacuateForm(ActionListener actionListener,
-                        ArrayList<String> queries,
-                        ArrayList<String> evacuateText) {
+                        ArrayList<CypherQuery> queries,
+                        ArrayList<String> evacuateText,
+                        Fleet plannedFleet,
+                        long plannedWrites) {
 
-        this.declineQueries = queries;
+        this.evacuateQueries = queries;
         this.lines = evacuateText;
+        this.plannedFleet = plannedFleet;
+        this.plannedWrites = plannedWrites;
 
         setEvacuateTextArea(evacuateText);
 
@@ -58,8 +69,16 @@ public class EvacuateForm extends JFrame {
         evacuateTextArea.setText(text);
     }
 
-    public ArrayList<String> getDeclineQueries() {
-        return declineQueries;
+    public ArrayList<CypherQuery> getEvacuateQueries() {
+        return evacuateQueries;
+    }
+
+    public Fleet getPlannedFleet() {
+        return plannedFleet;
+    }
+
+    public long getPlannedWrites() {
+        return plannedWrites;
     }
 
     private void createUIComponents() {
@@ -36,30 +36,25 @@ public class LoginForm extends JFrame {
                 String password = String.valueOf(passwordField.getPassword());
 
                 UI ui = new UI();
+                submitButton.setEnabled(false);
 
-                CompletableFuture<Boolean> completableFuture = CompletableFuture.supplyAsync(
-                        () -> ui.init(uri, userName, password)
-                );
+                // Connect and load the fleet off the event dispatch thread
+                CompletableFuture.supplyAsync(() -> ui.init(uri, userName, password))
+                        .whenComplete((successful, throwable) -> SwingUtilities.invokeLater(() -> {
+                            submitButton.setEnabled(true);
 
-                while (!completableFuture.isDone()) {
-                    System.out.println("CompletableFuture is not finished yet...");
-                }
+                            if (throwable != null || !successful) {
+                                String title = "Bad database connection!";
+                                String message = "Check your login credentials, or your database connection!";
+                                JOptionPane.showMessageDialog(null, message, "InfoBox: " + title, JOptionPane.INFORMATION_MESSAGE);
+                                if (throwable != null)
+                                    throwable.printStackTrace();
+                                return;
+                            }
 
-                try {
-                    System.out.println("CompletableFuture turned out to be: " + completableFuture.get().toString());
-                    SwingUtilities.invokeLater(new Runnable() {
-                        @Override
-                        public void run() {
                             ui.display();
-                        }
-                    });
-                    setDefaultCloseOperation(DISPOSE_ON_CLOSE);
-                } catch (Exception ex) {
-                    String title = "Bad database connection!";
-                    String message = "Check your login credentials, or your database connection!";
-                    JOptionPane.showMessageDialog(null, message, "InfoBox: " + title, JOptionPane.INFORMATION_MESSAGE);
-                    ex.printStackTrace();
-                }
+                            setDefaultCloseOperation(DISPOSE_ON_CLOSE);
+                        }));
             }
         });
 
@@ -0,0 +1,108 @@
+package frontend.labels;
+
+import javax.swing.*;
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.util.concurrent.ConcurrentHashMap;
+
+/** Cache of scaled icons that are shared by all NodeLabels
+ * Every source icon is rendered only once per target size
+ * into an image that is compatible with the screen
+ * @author Louis Wendler
+ * @since 1.0
+ * @version 1.0
+ */
+public class IconCache {
+
+    private final ConcurrentHashMap<ImageIcon, ConcurrentHashMap<Dimension, ImageIcon>> scaledIcons;
+
+    /**
+     * Create an empty IconCache
+     */
+    public IconCache() {
+        scaledIcons = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * Get an icon scaled to the desired width and height
+     * @param icon Icon that needs to be scaled
+     * @param width The width after scaling
+     * @param height The height after scaling
+     * @return The shared scaled ImageIcon
+     */
+    public ImageIcon getScaledIcon(ImageIcon icon, int width, int height) {
+        return scaledIcons
+                .computeIfAbsent(icon, key -> new ConcurrentHashMap<>())
+                .computeIfAbsent(new Dimension(width, height), size -> render(icon, size.width, size.height));
+    }
+
+    /**
+     * Get an icon scaled to the desired width and height at a zoom level
+     * @param icon Icon that needs to be scaled
+     * @param width The width after scaling at zoom level 1
+     * @param height The height after scaling at zoom level 1
+     * @param zoom The zoom level of the map
+     * @return The shared scaled ImageIcon
+     */
+    public ImageIcon getScaledIcon(ImageIcon icon, int width, int height, double zoom) {
+        return getScaledIcon(
+                icon,
+                Math.max(1, (int) Math.round(width * zoom)),
+                Math.max(1, (int) Math.round(height * zoom))
+        );
+    }
+
+    /**
+     * Remove all scaled icons, e.g. after the screen configuration changed
+     */
+    public void clear() {
+        scaledIcons.clear();
+    }
+
+    /**
+     * Render an icon into a screen compatible image of the desired size
+     * Large downscales are done in halving steps to keep the quality of a smooth scale
+     * @param icon Icon that needs to be scaled
+     * @param width The width after scaling
+     * @param height The height after scaling
+     * @return The scaled ImageIcon
+     */
+    private ImageIcon render(ImageIcon icon, int width, int height) {
+        Image image = icon.getImage();
+        int currentWidth = Math.max(1, icon.getIconWidth());
+        int currentHeight = Math.max(1, icon.getIconHeight());
+
+        do {
+            currentWidth = Math.max(width, currentWidth / 2);
+            currentHeight = Math.max(height, currentHeight / 2);
+
+            BufferedImage step = createCompatibleImage(currentWidth, currentHeight);
+            Graphics2D g = step.createGraphics();
+            g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+            g.drawImage(image, 0, 0, currentWidth, currentHeight, null);
+            g.dispose();
+
+            image = step;
+        } while (currentWidth != width || currentHeight != height);
+
+        return new ImageIcon(image);
+    }
+
+    /**
+     * Create a translucent image in the screen's native pixel layout
+     * @param width Width of the image
+     * @param height Height of the image
+     * @return A BufferedImage that can be drawn without conversion
+     */
+    private BufferedImage createCompatibleImage(int width, int height) {
+        if (GraphicsEnvironment.isHeadless())
+            return new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+
+        return GraphicsEnvironment.getLocalGraphicsEnvironment()
+                .getDefaultScreenDevice()
+                .getDefaultConfiguration()
+                .createCompatibleImage(width, height, Transparency.TRANSLUCENT);
+    }
+}
@@ -0,0 +1,127 @@
+package frontend.labels;
+
+import java.awt.*;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+
+/** Spatial index of NodeLabel bounds for drag-and-drop hit testing
+ * The pane is divided into a uniform grid, each cell knows the labels that overlap it,
+ * so a lookup only visits the labels close to the queried area
+ * @author Louis Wendler
+ * @since 1.0
+ * @version 1.0
+ */
+public class LabelIndex {
+
+    private final int cellSize;
+    private final HashMap<Long, ArrayList<NodeLabel>> cells;
+    private final HashMap<NodeLabel, Rectangle> indexedBounds;
+
+    /**
+     * Create an empty LabelIndex
+     * @param cellSize Width and height of a grid cell in pixels (about the size of a label)
+     */
+    public LabelIndex(int cellSize) {
+        this.cellSize = cellSize;
+
+        cells = new HashMap<>();
+        indexedBounds = new HashMap<>();
+    }
+
+    /**
+     * Add a label with its current bounds
+     * @param label The NodeLabel that shall be found by its bounds
+     */
+    public void add(NodeLabel label) {
+        Rectangle bounds = label.getBounds();
+        indexedBounds.put(label, bounds);
+
+        for (long cell : cellsOf(bounds)) {
+            cells.computeIfAbsent(cell, key -> new ArrayList<>()).add(label);
+        }
+    }
+
+    /**
+     * Remove a label from the index
+     * @param label The NodeLabel that shall not be found anymore
+     */
+    public void remove(NodeLabel label) {
+        Rectangle bounds = indexedBounds.remove(label);
+        if (bounds == null)
+            return;
+
+        for (long cell : cellsOf(bounds)) {
+            ArrayList<NodeLabel> labels = cells.get(cell);
+            labels.remove(label);
+            if (labels.isEmpty())
+                cells.remove(cell);
+        }
+    }
+
+    /**
+     * Update the bounds of a label after it has been moved or resized
+     * @param label The NodeLabel that was moved
+     */
+    public void update(NodeLabel label) {
+        Rectangle bounds = indexedBounds.get(label);
+        if (bounds == null || bounds.equals(label.getBounds()))
+            return;
+
+        remove(label);
+        add(label);
+    }
+
+    /**
+     * Determine if a label is part of the index
+     * @param label The NodeLabel
+     * @return True if the label was added and not removed since
+     */
+    public boolean contains(NodeLabel label) {
+        return indexedBounds.containsKey(label);
+    }
+
+    /**
+     * Find all labels whose bounds intersect an area
+     * @param area Area in the coordinates of the labels' parent
+     * @return List of intersecting NodeLabels
+     */
+    public ArrayList<NodeLabel> query(Rectangle area) {
+        ArrayList<NodeLabel> result = new ArrayList<>();
+        HashSet<NodeLabel> visited = new HashSet<>();
+
+        for (long cell : cellsOf(area)) {
+            ArrayList<NodeLabel> labels = cells.get(cell);
+            if (labels == null)
+                continue;
+
+            for (NodeLabel label : labels) {
+                if (visited.add(label) && indexedBounds.get(label).intersects(area))
+                    result.add(label);
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Compute the keys of all grid cells a rectangle overlaps
+     * @param bounds The rectangle
+     * @return Keys of the overlapped cells
+     */
+    private long[] cellsOf(Rectangle bounds) {
+        int minX = Math.floorDiv(bounds.x, cellSize);
+        int minY = Math.floorDiv(bounds.y, cellSize);
+        int maxX = Math.floorDiv(bounds.x + Math.max(0, bounds.width - 1), cellSize);
+        int maxY = Math.floorDiv(bounds.y + Math.max(0, bounds.height - 1), cellSize);
+
+        long[] keys = new long[(maxX - minX + 1) * (maxY - minY + 1)];
+        int i = 0;
+        for (int x = minX; x <= maxX; x++) {
+            for (int y = minY; y <= maxY; y++) {
+                keys[i++] = ((long) x << 32) | (y & 0xffffffffL);
+            }
+        }
+        return keys;
+    }
+}
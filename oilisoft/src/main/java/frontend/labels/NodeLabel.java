@@ -17,11 +17,16 @@ public abstract class NodeLabel extends JLabel {
     private Dimension labelExtra = new Dimension(5, 5);
     private Dimension imageSize;
 
+    private final LineBorder roundedLineBorder;
+    private final LineBorder highlightLineBorder;
+    private final TitledBorder roundedTitledBorder;
+
     JFrame frame;
     PopupFactory popupFactory;
     Popup hoverPopup;
 
     private boolean dragged;
+    private boolean highlighted;
 
     /**
      * Create a new NodeLabel
@@ -46,8 +51,9 @@ public abstract class NodeLabel extends JLabel {
 
         setSize(getPreferredSize());
 
-        LineBorder roundedLineBorder = new LineBorder(new Color(71, 67, 79), 3, true);
-        TitledBorder roundedTitledBorder = new TitledBorder(roundedLineBorder, name);
+        roundedLineBorder = new LineBorder(new Color(71, 67, 79), 3, true);
+        highlightLineBorder = new LineBorder(new Color(127, 167, 199), 3, true);
+        roundedTitledBorder = new TitledBorder(roundedLineBorder, name);
         roundedTitledBorder.setTitleColor(new Color(127, 167, 199));
         setBorder(roundedTitledBorder);
 
@@ -80,6 +86,23 @@ public abstract class NodeLabel extends JLabel {
         this.dragged = dragged;
     }
 
+    public boolean isHighlighted() {
+        return highlighted;
+    }
+
+    /**
+     * Highlight the NodeLabel's border, e.g. while it is the target of a drag
+     * @param highlighted True if the NodeLabel shall be highlighted
+     */
+    public void setHighlighted(boolean highlighted) {
+        if (this.highlighted == highlighted)
+            return;
+
+        this.highlighted = highlighted;
+        roundedTitledBorder.setBorder(highlighted ? highlightLineBorder : roundedLineBorder);
+        repaint();
+    }
+
     /**
      * Getter for the Nodes the NodeLabel represents
      * @param <T>
@@ -54,6 +54,14 @@ public class OilRigLabel extends NodeLabel {
         return oilRig;
     }
 
+    /**
+     * Point the OilRigLabel at a newer snapshot of its node
+     * @param oilRig The oil rig node with the same name
+     */
+    public void setNode(OilRig oilRig) {
+        this.oilRig = oilRig;
+    }
+
 
     /**
      * See NodeLabel.showHoverPopup()
@@ -36,6 +36,14 @@ public class ShipLabel extends NodeLabel {
         return ship;
     }
 
+    /**
+     * Point the ShipLabel at a newer snapshot of its node
+     * @param ship The ship node with the same name
+     */
+    public void setNode(Ship ship) {
+        this.ship = ship;
+    }
+
     /**
      * See NodeLabel.showHoverPopup()
      * @param point Position of the Popup